@@ -0,0 +1,9 @@
+package com.example.backend.DTO;
+
+// 1 gợi ý khi gõ ô tìm kiếm. type: PRODUCT | CATEGORY | QUERY (từ khóa được tìm nhiều)
+public record AutocompleteSuggestionDTO(String text,
+                                        String type,
+                                        String productId,
+                                        String categoryId,
+                                        long popularity) {
+}
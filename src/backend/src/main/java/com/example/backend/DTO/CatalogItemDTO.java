@@ -0,0 +1,17 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// 1 sản phẩm trong trang danh sách (đọc từ bảng cột trong bộ nhớ, không chạm entity)
+public record CatalogItemDTO(String productId,
+                             String productName,
+                             String imageUrl,
+                             BigDecimal price,
+                             BigDecimal discount,
+                             BigDecimal finalPrice,
+                             int quantity,
+                             long soldCount,
+                             String categoryId,
+                             int ratingCount,
+                             double ratingAverage) {
+}
@@ -0,0 +1,13 @@
+package com.example.backend.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+// Kết quả lọc: 1 trang sản phẩm + số lượng theo từng giá trị của mỗi nhóm lọc
+// (facets: "category" | "color" | "material" | "size" | "origin" | "priceBand" -> [(giá trị, số sản phẩm)])
+public record CatalogPageDTO(long total,
+                             int page,
+                             int limit,
+                             List<CatalogItemDTO> items,
+                             Map<String, List<NameValueDTO>> facets) {
+}
@@ -0,0 +1,32 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Bộ lọc danh sách sản phẩm. Các giá trị trong cùng 1 nhóm là OR, giữa các nhóm là AND.
+// sort: newest | price_asc | price_desc | best_selling | top_rated
+public record CatalogQuery(List<String> categoryIds,
+                           List<String> colors,
+                           List<String> materials,
+                           List<String> sizes,
+                           List<String> origins,
+                           List<String> priceBands,
+                           BigDecimal minPrice,
+                           BigDecimal maxPrice,
+                           boolean inStockOnly,
+                           String sort,
+                           int page,
+                           int limit) {
+
+    public CatalogQuery {
+        categoryIds = categoryIds == null ? List.of() : categoryIds;
+        colors = colors == null ? List.of() : colors;
+        materials = materials == null ? List.of() : materials;
+        sizes = sizes == null ? List.of() : sizes;
+        origins = origins == null ? List.of() : origins;
+        priceBands = priceBands == null ? List.of() : priceBands;
+        if (sort == null) sort = "newest";
+        page = Math.max(page, 0);
+        limit = Math.max(1, Math.min(limit, 100));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.backend.DTO;
+
+import com.example.backend.model.Category;
+
+// Danh mục đi kèm sản phẩm trong response
+public record CategoryDTO(String categoryId, String categoryName, String description) {
+
+    public static CategoryDTO from(Category category) {
+        if (category == null) return null;
+        return new CategoryDTO(category.getCategoryId(), category.getCategoryName(), category.getDescription());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend.DTO;
+
+import java.util.List;
+
+// Toàn bộ dữ liệu trang Dashboard trong 1 response.
+// Section nào lỗi/quá thời gian sẽ là null và có tên trong failedSections.
+public record DashboardBundleDTO(
+        DashboardOverviewDTO overview,
+        List<NameValueDTO> orderStatus,
+        List<NameValueDTO> topCategories,
+        List<TopProductDTO> topProducts,
+        List<TopCustomerDTO> topCustomers,
+        List<RevenueComparisonDTO> revenueComparison,
+        List<RevenuePointDTO> revenueChart,
+        List<PeakHourDTO> peakHours,
+        List<LowStockProductDTO> lowStock,
+        List<StagnantProductDTO> stagnant,
+        List<String> failedSections
+) {
+}
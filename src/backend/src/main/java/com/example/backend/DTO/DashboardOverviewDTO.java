@@ -0,0 +1,15 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// KPI tổng quan hiển thị trên đầu trang Dashboard
+public record DashboardOverviewDTO(
+        long totalUsers,
+        double userGrowth,
+        long newOrders,
+        double orderGrowth,
+        BigDecimal monthlyRevenue,
+        double revenueGrowth,
+        long totalStock
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.backend.DTO;
+
+// Kết quả xin vào cổng thanh toán Flash Sale.
+// WAITING: kèm vé đã ký, vị trí trong phòng chờ và thời gian chờ ước tính; client gửi lại vé khi hết thời gian chờ.
+public record FlashSaleAdmissionDTO(Status status, String ticket, Long position, Long etaMs, String message) {
+
+    public enum Status {
+        ADMITTED, WAITING, SOLD_OUT, RATE_LIMITED
+    }
+
+    public static FlashSaleAdmissionDTO admitted() {
+        return new FlashSaleAdmissionDTO(Status.ADMITTED, null, 0L, 0L, null);
+    }
+
+    public static FlashSaleAdmissionDTO waiting(String ticket, long position, long etaMs) {
+        return new FlashSaleAdmissionDTO(Status.WAITING, ticket, position, etaMs,
+                "Đang có nhiều người mua, bạn đang ở vị trí " + position + " trong hàng chờ");
+    }
+
+    public static FlashSaleAdmissionDTO soldOut(String message) {
+        return new FlashSaleAdmissionDTO(Status.SOLD_OUT, null, null, null, message);
+    }
+
+    public static FlashSaleAdmissionDTO rateLimited(String message) {
+        return new FlashSaleAdmissionDTO(Status.RATE_LIMITED, null, null, null, message);
+    }
+}
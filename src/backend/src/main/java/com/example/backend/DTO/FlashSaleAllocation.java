@@ -0,0 +1,7 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// Suất Flash Sale đã giữ cho 1 dòng đơn hàng: đợt sale và giá áp dụng lúc đặt
+public record FlashSaleAllocation(Integer flashSaleId, BigDecimal flashSalePrice) {
+}
@@ -1,5 +1,6 @@
 package com.example.backend.DTO;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.math.BigDecimal;
 
@@ -13,4 +14,7 @@ public class FlashSaleItemDTO {
     private BigDecimal flashSalePrice;
     private Integer quantity;
     private Integer soldCount;
+    // @Version của dòng flash_sale_items lúc đọc soldCount; chỉ dùng nội bộ để snapshot không bị ghi lùi
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.backend.DTO;
+
+// Payload Flash Sale hiện tại đã dựng sẵn + ETag tương ứng.
+// Không sửa trực tiếp: mỗi thay đổi (trạng thái, số suất đã bán) tạo snapshot mới rồi thay thế.
+public record FlashSaleSnapshot(FlashSaleDTO sale, String etag) {
+}
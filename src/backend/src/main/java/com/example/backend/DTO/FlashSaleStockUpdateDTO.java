@@ -0,0 +1,10 @@
+package com.example.backend.DTO;
+
+import java.util.List;
+
+// Sự kiện SSE: số suất đã bán mới nhất của các sản phẩm vừa thay đổi (đã gộp theo lô)
+public record FlashSaleStockUpdateDTO(Integer flashSaleId, List<Item> items) {
+
+    public record Item(String productId, int soldCount, int quantity) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.backend.DTO;
+
+// Thống kê xung đột optimistic lock theo từng thao tác (checkout, hủy đơn, ...)
+public record LockConflictStatsDTO(String operation, long attempts, long conflicts, long retriesExhausted,
+                                   double conflictRate) {
+}
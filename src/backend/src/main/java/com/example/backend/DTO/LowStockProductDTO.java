@@ -0,0 +1,4 @@
+package com.example.backend.DTO;
+
+public record LowStockProductDTO(String name, Integer stock) {
+}
@@ -0,0 +1,10 @@
+package com.example.backend.DTO;
+
+// Cặp (tên, giá trị) dùng cho biểu đồ tròn / cột: trạng thái đơn, top danh mục...
+public record NameValueDTO(String name, Long value) {
+
+    public NameValueDTO {
+        if (name == null) name = "UNKNOWN";
+        if (value == null) value = 0L;
+    }
+}
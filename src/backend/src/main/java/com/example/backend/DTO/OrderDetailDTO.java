@@ -16,6 +16,8 @@ public class OrderDetailDTO {
     private BigDecimal originalUnitPrice;
     private BigDecimal subtotal;
     private Integer isFlashSaleFlag;
+    private Integer flashSaleId;
+    private BigDecimal flashSalePrice;
 
     public OrderDetailDTO(OrderDetail detail) {
         this.orderDetailId = detail.getOrderDetailId();
@@ -24,6 +26,8 @@ public class OrderDetailDTO {
         this.unitPrice = detail.getUnitPrice();
         this.originalUnitPrice = detail.getOriginalUnitPrice();
         this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-        this.isFlashSaleFlag = detail.getIsFlashSale();
+        this.isFlashSaleFlag = detail.getFlashSaleId() != null ? 1 : detail.getIsFlashSale();
+        this.flashSaleId = detail.getFlashSaleId();
+        this.flashSalePrice = detail.getFlashSalePrice();
     }
 }
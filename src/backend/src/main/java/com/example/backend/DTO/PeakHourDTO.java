@@ -0,0 +1,4 @@
+package com.example.backend.DTO;
+
+public record PeakHourDTO(String hour, long value) {
+}
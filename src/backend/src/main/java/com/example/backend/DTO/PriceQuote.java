@@ -0,0 +1,30 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// Kết quả tính giá phía server, mọi số tiền tính bằng đơn vị nhỏ nhất (1/100 đồng) kiểu long.
+// unitPrices/originalUnitPrices theo đúng thứ tự các dòng truyền vào.
+public record PriceQuote(long[] unitPrices, long[] originalUnitPrices, long subtotal, long discount, long total) {
+
+    public static final int SCALE = 2;
+
+    // flashSalePrice: giá Flash Sale đã giữ cho dòng này, null nếu mua giá thường
+    public record Line(String productId, int quantity, BigDecimal flashSalePrice) {
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public BigDecimal unitPrice(int index) {
+        return toAmount(unitPrices[index]);
+    }
+
+    public BigDecimal originalUnitPrice(int index) {
+        return toAmount(originalUnitPrices[index]);
+    }
+
+    public BigDecimal totalAmount() {
+        return toAmount(total);
+    }
+}
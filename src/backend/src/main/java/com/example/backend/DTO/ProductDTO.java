@@ -1,6 +1,5 @@
 package com.example.backend.DTO;
 
-import com.example.backend.model.Category;
 import com.example.backend.model.Product;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,7 +24,11 @@ public class ProductDTO {
     private String warranty;
     private String origin;
     private LocalDateTime createdAt;
-    private Category category;
+    private CategoryDTO category;
+    // Form admin gửi lại khi lưu để phát hiện sửa chồng
+    private Long version;
+    private int ratingCount;
+    private double ratingAverage;
 
     public ProductDTO(Product product) {
         this.productId = product.getProductId();
@@ -42,6 +45,9 @@ public class ProductDTO {
         this.warranty = product.getWarranty();
         this.origin = product.getOrigin();
         this.createdAt = product.getCreatedAt();
-        this.category = product.getCategory();
+        this.category = CategoryDTO.from(product.getCategory());
+        this.version = product.getVersion();
+        this.ratingCount = product.getRatingCount();
+        this.ratingAverage = product.getRatingAverage();
     }
 }
@@ -0,0 +1,14 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// 1 kết quả tìm kiếm sản phẩm (đã xếp hạng BM25)
+public record ProductSearchHitDTO(String productId,
+                                  String productName,
+                                  String imageUrl,
+                                  BigDecimal price,
+                                  BigDecimal discount,
+                                  String categoryId,
+                                  String categoryName,
+                                  double score) {
+}
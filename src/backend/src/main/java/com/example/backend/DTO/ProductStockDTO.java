@@ -0,0 +1,7 @@
+package com.example.backend.DTO;
+
+import java.util.List;
+
+// Tồn kho chính xác của 1 sản phẩm (cộng trực tiếp từ các shard nếu đang bật chia shard)
+public record ProductStockDTO(String productId, boolean sharded, long totalQuantity, List<Integer> shardQuantities) {
+}
@@ -0,0 +1,5 @@
+package com.example.backend.DTO;
+
+// Doanh thu thực tế vs ước tính theo tháng (label: "T11")
+public record RevenueComparisonDTO(String label, Double actual, Double estimated) {
+}
@@ -0,0 +1,7 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+// Một điểm trên biểu đồ doanh thu theo ngày (label: "10/12/2025")
+public record RevenuePointDTO(String label, BigDecimal revenue, long orderCount) {
+}
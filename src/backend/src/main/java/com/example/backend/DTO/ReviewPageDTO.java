@@ -0,0 +1,7 @@
+package com.example.backend.DTO;
+
+import java.util.List;
+
+// 1 trang đánh giá; nextCursor = null khi đã hết
+public record ReviewPageDTO(List<ReviewDTO> items, String nextCursor) {
+}
@@ -0,0 +1,18 @@
+package com.example.backend.DTO;
+
+import com.example.backend.model.Slideshow;
+
+public record SlideshowDTO(Long id,
+                           String imageUrl,
+                           String title,
+                           String description,
+                           String targetUrl,
+                           Integer sortOrder,
+                           Boolean active) {
+
+    public static SlideshowDTO from(Slideshow slideshow) {
+        return new SlideshowDTO(slideshow.getId(), slideshow.getImageUrl(), slideshow.getTitle(),
+                slideshow.getDescription(), slideshow.getTargetUrl(), slideshow.getSortOrder(),
+                slideshow.getActive());
+    }
+}
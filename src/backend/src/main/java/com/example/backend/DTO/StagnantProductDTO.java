@@ -0,0 +1,11 @@
+package com.example.backend.DTO;
+
+public record StagnantProductDTO(String name, Integer stock, String image, String status) {
+
+    public static final String NO_SALES_STATUS = "Không bán được đơn nào trong 3 tháng";
+
+    // Dùng cho constructor expression trong JPQL
+    public StagnantProductDTO(String name, Integer stock, String image) {
+        this(name, stock, image, NO_SALES_STATUS);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.backend.DTO;
+
+// Một nhóm trong báo cáo tuổi tồn kho (theo số ngày kể từ lần bán gần nhất)
+public record StockAgingDTO(String bucket, String label, long productCount, long stockQuantity) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+public record TopCustomerDTO(String name, String email, String avatar, BigDecimal totalSpent) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.DTO;
+
+import java.math.BigDecimal;
+
+public record TopProductDTO(String name, String image, BigDecimal price, Long sold) {
+}
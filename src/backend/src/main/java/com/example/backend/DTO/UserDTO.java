@@ -0,0 +1,25 @@
+package com.example.backend.DTO;
+
+import com.example.backend.model.User;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+// Thông tin người dùng trả cho client (không có mật khẩu)
+public record UserDTO(String userId,
+                      String email,
+                      String fullName,
+                      String avatar,
+                      String address,
+                      String gender,
+                      Date birthDate,
+                      String phoneNumber,
+                      String role,
+                      Timestamp createdAt) {
+
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getUserId(), user.getEmail(), user.getFullName(), user.getAvatar(),
+                user.getAddress(), user.getGender(), user.getBirthDate(), user.getPhoneNumber(),
+                user.getRole(), user.getCreatedAt());
+    }
+}
@@ -1,20 +1,140 @@
 package com.example.backend.component;
 
+import com.example.backend.event.FlashSaleChangedEvent;
+import com.example.backend.model.FlashSale;
+import com.example.backend.repository.FlashSaleRepository;
 import com.example.backend.service.FlashSaleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledFuture;
+
+// Lập lịch chuyển trạng thái Flash Sale theo đúng mốc thời gian:
+// giữ các mốc (warm-up, bắt đầu, kết thúc) trong hàng đợi ưu tiên và chỉ hẹn giờ cho mốc gần nhất.
 @Component
 public class FlashSaleScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleScheduler.class);
+
     @Autowired
     private FlashSaleService flashSaleService;
 
-    // Chạy mỗi phút 1 lần (60000ms) để cập nhật trạng thái Flash Sale
-    @Scheduled(fixedRate = 60000)
-    public void checkFlashSaleStatus() {
-        // System.out.println("Checking flash sale status...");
-        flashSaleService.updateFlashSaleStatus();
+    @Autowired
+    private FlashSaleRepository flashSaleRepository;
+
+    // Scheduler riêng (SchedulingConfig), không chung thread với các job @Scheduled
+    @Autowired
+    @Qualifier("flashSaleTaskScheduler")
+    private TaskScheduler taskScheduler;
+
+    // Chuẩn bị dữ liệu trước giờ mở bán bao lâu (mặc định 10s)
+    @Value("${flashsale.warmup-lead-ms:10000}")
+    private long warmUpLeadMs;
+
+    private final PriorityQueue<Transition> queue = new PriorityQueue<>(Comparator.comparing(Transition::at));
+    private ScheduledFuture<?> nextRun;
+
+    private enum Action { WARM_UP, ACTIVATE, FINISH }
+
+    private record Transition(Instant at, Integer flashSaleId, Action action) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Tạo / sửa / xóa Flash Sale -> dựng lại hàng đợi (sau khi commit nếu có transaction)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlashSaleChanged(FlashSaleChangedEvent event) {
+        rebuild();
+    }
+
+    // Lưới an toàn: đối soát định kỳ (đổi giờ hệ thống, sửa DB trực tiếp...)
+    @Scheduled(fixedDelayString = "${flashsale.reconcile-ms:600000}", initialDelayString = "${flashsale.reconcile-ms:600000}")
+    public void reconcile() {
+        rebuild();
+        flashSaleService.refreshCurrentFlashSale();
+    }
+
+    public synchronized void rebuild() {
+        try {
+            // Đưa trạng thái về đúng tại thời điểm hiện tại (chỉ ghi dòng thay đổi)
+            flashSaleService.updateFlashSaleStatus();
+
+            queue.clear();
+            Instant now = Instant.now();
+            for (FlashSale sale : flashSaleRepository.findByStatusNot(FlashSale.Status.Finished)) {
+                Instant start = toInstant(sale.getStartDate());
+                Instant end = toInstant(sale.getEndDate());
+                if (!end.isAfter(now)) continue;
+
+                if (start.isAfter(now)) {
+                    Instant warmUpAt = start.minusMillis(warmUpLeadMs);
+                    queue.add(new Transition(warmUpAt.isAfter(now) ? warmUpAt : now, sale.getFlashSaleId(), Action.WARM_UP));
+                    queue.add(new Transition(start, sale.getFlashSaleId(), Action.ACTIVATE));
+                }
+                queue.add(new Transition(end, sale.getFlashSaleId(), Action.FINISH));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild flash sale schedule: {}", e.getMessage());
+        }
+        scheduleNext();
+    }
+
+    private synchronized void runDueTransitions() {
+        Instant now = Instant.now();
+        while (!queue.isEmpty() && !queue.peek().at().isAfter(now)) {
+            Transition transition = queue.poll();
+            try {
+                apply(transition);
+            } catch (RuntimeException e) {
+                log.warn("Flash sale {} {} failed: {}", transition.flashSaleId(), transition.action(), e.getMessage());
+            }
+        }
+        scheduleNext();
+    }
+
+    private void apply(Transition transition) {
+        switch (transition.action()) {
+            case WARM_UP -> flashSaleService.warmUpFlashSale(transition.flashSaleId());
+            case ACTIVATE -> {
+                flashSaleRepository.updateStatusIfChanged(transition.flashSaleId(), FlashSale.Status.Active);
+                flashSaleService.refreshCurrentFlashSale();
+            }
+            case FINISH -> {
+                flashSaleRepository.updateStatusIfChanged(transition.flashSaleId(), FlashSale.Status.Finished);
+                flashSaleService.refreshCurrentFlashSale();
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        if (nextRun != null) {
+            nextRun.cancel(false);
+            nextRun = null;
+        }
+        Transition head = queue.peek();
+        if (head != null) {
+            nextRun = taskScheduler.schedule(this::runDueTransitions, head.at());
+        }
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.example.backend.component;
+
+import com.example.backend.DTO.FlashSaleStockUpdateDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Đẩy số suất Flash Sale còn lại tới trình duyệt qua Server-Sent Events.
+// Các thay đổi được gộp theo sản phẩm và gửi theo lô (tối đa 1 lần mỗi flush-ms),
+// payload chỉ serialize 1 lần rồi dùng chung cho mọi kết nối.
+// Việc ghi ra socket chạy trên executor riêng để client chậm không giữ thread của scheduler.
+@Component
+public class FlashSaleStockBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleStockBroadcaster.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("flashSaleStreamExecutor")
+    private TaskExecutor streamExecutor;
+
+    @Value("${flashsale.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${flashsale.stream.max-connections:10000}")
+    private int maxConnections;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    // flashSaleId -> (productId -> trạng thái mới nhất). Nhiều lần bán trong 1 lô chỉ gửi 1 lần.
+    // Flush tráo cả map bằng getAndSet nên không mất cập nhật ghi vào giữa lúc đang đọc.
+    private final AtomicReference<Map<Integer, Map<String, FlashSaleStockUpdateDTO.Item>>> pending =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+
+    // publish giữ read lock (không chặn lẫn nhau), flush giữ write lock chỉ trong lúc tráo map:
+    // đảm bảo không còn ai đang ghi vào map cũ khi flush đọc nó
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public SseEmitter subscribe() {
+        if (emitters.size() >= maxConnections) {
+            throw new IllegalStateException("Quá nhiều kết nối theo dõi Flash Sale");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    // Gọi sau khi transaction trừ/hoàn suất Flash Sale đã commit
+    public void publish(Integer flashSaleId, String productId, int soldCount, int quantity) {
+        swapLock.readLock().lock();
+        try {
+            pending.get().computeIfAbsent(flashSaleId, id -> new ConcurrentHashMap<>())
+                    .put(productId, new FlashSaleStockUpdateDTO.Item(productId, soldCount, quantity));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${flashsale.stream.flush-ms:500}")
+    public void flush() {
+        if (pending.get().isEmpty()) return;
+
+        Map<Integer, Map<String, FlashSaleStockUpdateDTO.Item>> batch;
+        swapLock.writeLock().lock();
+        try {
+            batch = pending.getAndSet(new ConcurrentHashMap<>());
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (emitters.isEmpty()) return;
+
+        for (Map.Entry<Integer, Map<String, FlashSaleStockUpdateDTO.Item>> entry : batch.entrySet()) {
+            List<FlashSaleStockUpdateDTO.Item> items = new ArrayList<>(entry.getValue().values());
+            if (items.isEmpty()) continue;
+            try {
+                String payload = objectMapper.writeValueAsString(new FlashSaleStockUpdateDTO(entry.getKey(), items));
+                send(SseEmitter.event().name("stock").data(payload, MediaType.APPLICATION_JSON));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not serialize flash sale stock update: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Giữ kết nối sống qua proxy và dọn các kết nối đã chết
+    @Scheduled(fixedDelayString = "${flashsale.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            send(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+        // build() một lần rồi dùng lại cho mọi emitter
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        try {
+            streamExecutor.execute(() -> fanOut(data));
+        } catch (TaskRejectedException e) {
+            log.warn("Flash sale stream executor is saturated, dropping one event batch");
+        }
+    }
+
+    private void fanOut(Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(data);
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
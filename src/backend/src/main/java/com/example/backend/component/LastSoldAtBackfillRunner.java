@@ -0,0 +1,35 @@
+package com.example.backend.component;
+
+import com.example.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LastSoldAtBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LastSoldAtBackfillRunner.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${inventory.last-sold-backfill.enabled:true}")
+    private boolean enabled;
+
+    // Chạy 1 lần khi khởi động: điền last_sold_at cho các sản phẩm cũ từ lịch sử đơn hàng.
+    // Sau đó cột được cập nhật trực tiếp mỗi khi đặt hàng.
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        try {
+            int updated = productRepository.backfillLastSoldAt();
+            log.info("Backfilled last_sold_at for {} products", updated);
+        } catch (RuntimeException e) {
+            log.warn("Could not backfill last_sold_at: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.backend.component;
+
+import com.example.backend.DTO.LockConflictStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Chạy lại cả transaction khi gặp xung đột @Version (phải gọi từ NGOÀI method @Transactional,
+// để mỗi lần thử là 1 transaction mới đọc lại dữ liệu mới nhất).
+// Backoff kiểu "full jitter": ngủ ngẫu nhiên trong [0, min(max, base * 2^lần)) để các request
+// đụng nhau không cùng thử lại một lúc.
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    @Value("${order.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${order.retry.base-backoff-ms:10}")
+    private long baseBackoffMs;
+
+    @Value("${order.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private static final class Stats {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        Stats s = stats.computeIfAbsent(operation, k -> new Stats());
+        for (int attempt = 1; ; attempt++) {
+            s.attempts.increment();
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                s.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    s.exhausted.increment();
+                    log.warn("{} gave up after {} optimistic lock conflicts", operation, attempt);
+                    throw e;
+                }
+                sleep(backoffMs(attempt));
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public List<LockConflictStatsDTO> getStats() {
+        List<LockConflictStatsDTO> result = new ArrayList<>();
+        stats.forEach((operation, s) -> {
+            long attempts = s.attempts.sum();
+            long conflicts = s.conflicts.sum();
+            result.add(new LockConflictStatsDTO(operation, attempts, conflicts, s.exhausted.sum(),
+                    attempts == 0 ? 0 : (double) conflicts / attempts));
+        });
+        return result;
+    }
+
+    private long backoffMs(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bị gián đoạn khi chờ thử lại giao dịch", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.backend.component;
+
+import com.example.backend.component.ResourceVersions.Resource;
+import com.example.backend.model.Category;
+import com.example.backend.model.Coupon;
+import com.example.backend.model.PaymentMethod;
+import com.example.backend.model.Product;
+import com.example.backend.model.Slideshow;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Gắn vào các entity có ETag (@EntityListeners): mọi insert/update/delete qua JPA đều tăng phiên bản bảng đó,
+// kể cả các chỗ ghi gián tiếp như trừ kho khi đặt đơn hay cộng lượt dùng mã giảm giá
+@Component
+public class ResourceVersionEntityListener {
+
+    // Hibernate tạo listener lúc đang dựng EntityManagerFactory, khi đó ResourceVersions (cần repository -> EMF)
+    // chưa tạo được. Inject eager sẽ vòng phụ thuộc và Hibernate lặng lẽ dùng bản không inject (field null).
+    @Autowired
+    @Lazy
+    private ResourceVersions resourceVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Resource resource = resourceOf(entity);
+        if (resource != null) resourceVersions.bump(resource);
+    }
+
+    private static Resource resourceOf(Object entity) {
+        if (entity instanceof Product) return Resource.PRODUCTS;
+        if (entity instanceof Category) return Resource.CATEGORIES;
+        if (entity instanceof Slideshow) return Resource.SLIDESHOWS;
+        if (entity instanceof PaymentMethod) return Resource.PAYMENT_METHODS;
+        if (entity instanceof Coupon) return Resource.COUPONS;
+        return null;
+    }
+}
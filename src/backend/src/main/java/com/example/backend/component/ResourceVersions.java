@@ -0,0 +1,188 @@
+package com.example.backend.component;
+
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.event.ProductRatingChangedEvent;
+import com.example.backend.model.ResourceVersion;
+import com.example.backend.repository.ResourceVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Phiên bản cho các danh sách công khai ít đổi (sản phẩm, danh mục, slideshow, phương thức thanh toán, mã giảm giá).
+// - Phiên bản lưu ở bảng resource_versions nên mọi instance trả cùng ETag và ETag giữ nguyên qua restart
+// - Mỗi lần ghi tăng phiên bản SAU KHI commit (transaction riêng, gộp 1 lần / bảng / transaction)
+//   -> client thấy ETag mới thì dữ liệu đã là dữ liệu mới
+// - GET đọc phiên bản từ bản đệm tối đa version-ttl-ms trước khi gọi service: khớp -> 304, không serialize.
+//   Instance ghi làm mới bản đệm ngay; instance khác thấy phiên bản mới chậm nhất version-ttl-ms.
+@Component
+public class ResourceVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceVersions.class);
+
+    public enum Resource { PRODUCTS, CATEGORIES, SLIDESHOWS, PAYMENT_METHODS, COUPONS }
+
+    private record State(long[] versions, long[] modifiedAt, long loadedAt) {
+    }
+
+    @Autowired
+    private ResourceVersionRepository repository;
+
+    @Value("${http.cache.version-ttl-ms:1000}")
+    private long ttlMs;
+
+    private volatile State state;
+
+    // Tạo sẵn dòng cho mọi loại tài nguyên để đường GET chỉ phải đọc
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        seedMissing(EnumSet.allOf(Resource.class));
+    }
+
+    // Gọi từ nơi ghi dữ liệu; trong transaction thì chỉ tăng khi commit thành công
+    public void bump(Resource resource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(EnumSet.of(resource));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Resource> pending = (Set<Resource>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Resource> created = EnumSet.noneOf(Resource.class);
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersions.this);
+                }
+            });
+            pending = created;
+        }
+        pending.add(resource);
+    }
+
+    // Sản phẩm đổi qua UPDATE native (tổng hợp đánh giá...) không đi qua entity listener
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        increment(EnumSet.of(Resource.PRODUCTS));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductRatingChanged(ProductRatingChangedEvent event) {
+        increment(EnumSet.of(Resource.PRODUCTS));
+    }
+
+    public String etag(Resource resource) {
+        return etag(resource, current());
+    }
+
+    public long lastModified(Resource resource) {
+        return current().modifiedAt()[resource.ordinal()];
+    }
+
+    // GET có điều kiện: body chỉ được tính khi client chưa có bản mới nhất
+    public <T> ResponseEntity<T> conditionalGet(Resource resource, WebRequest request,
+                                                CacheControl cacheControl, Supplier<T> body) {
+        // Đọc ETag trước khi lấy dữ liệu: lần ghi commit giữa chừng chỉ làm bản này bị coi là cũ, không bao giờ ngược lại
+        State s = current();
+        String etag = etag(resource, s);
+        long lastModified = s.modifiedAt()[resource.ordinal()];
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).lastModified(lastModified).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag).lastModified(lastModified).cacheControl(cacheControl).body(body.get());
+    }
+
+    private static String etag(Resource resource, State s) {
+        return "\"" + resource.name().toLowerCase() + "-" + s.versions()[resource.ordinal()] + "\"";
+    }
+
+    private State current() {
+        State s = state;
+        if (s != null && System.currentTimeMillis() - s.loadedAt() < ttlMs) return s;
+        return reload();
+    }
+
+    // Nhiều request cùng thấy bản đệm hết hạn: chỉ request đầu tiên đọc DB
+    private synchronized State reload() {
+        long now = System.currentTimeMillis();
+        State s = state;
+        if (s != null && now - s.loadedAt() < ttlMs) return s;
+
+        Map<String, ResourceVersion> rows = loadRows();
+        Set<Resource> missing = EnumSet.noneOf(Resource.class);
+        for (Resource resource : Resource.values()) {
+            if (!rows.containsKey(resource.name())) missing.add(resource);
+        }
+        if (!missing.isEmpty()) {
+            // Chỉ xảy ra nếu GET tới trước khi seed() chạy xong: tạo bằng INSERT IGNORE rồi đọc lại
+            seedMissing(missing);
+            rows = loadRows();
+        }
+        Resource[] resources = Resource.values();
+        long[] versions = new long[resources.length];
+        long[] modifiedAt = new long[resources.length];
+        for (Resource resource : resources) {
+            ResourceVersion row = rows.getOrDefault(resource.name(), new ResourceVersion(resource.name(), 0L, now));
+            versions[resource.ordinal()] = row.getVersion();
+            modifiedAt[resource.ordinal()] = row.getModifiedAtMs();
+        }
+        s = new State(versions, modifiedAt, now);
+        state = s;
+        return s;
+    }
+
+    private Map<String, ResourceVersion> loadRows() {
+        return repository.findAll().stream()
+                .collect(Collectors.toMap(ResourceVersion::getResource, Function.identity()));
+    }
+
+    private void seedMissing(Set<Resource> resources) {
+        long now = System.currentTimeMillis();
+        try {
+            for (Resource resource : resources) {
+                repository.insertIfAbsent(resource.name(), now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not seed resource versions {}: {}", resources, e.getMessage());
+        }
+    }
+
+    private void increment(Set<Resource> resources) {
+        long now = System.currentTimeMillis();
+        try {
+            for (Resource resource : resources) {
+                repository.increment(resource.name(), now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not bump resource versions {}: {}", resources, e.getMessage());
+        }
+        // Instance vừa ghi đọc lại ngay, không chờ hết TTL
+        state = null;
+    }
+}
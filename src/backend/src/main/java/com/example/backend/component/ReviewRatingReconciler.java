@@ -0,0 +1,47 @@
+package com.example.backend.component;
+
+import com.example.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ đối soát rating_count / rating_sum / số review theo sao trên products với bảng reviews
+// (phòng review bị sửa/xóa trực tiếp dưới DB hoặc lệch do lỗi giữa chừng).
+// Duyệt theo lô product_id (keyset), mỗi lô 1 transaction riêng để không khóa cả bảng products cùng lúc.
+@Component
+public class ReviewRatingReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewRatingReconciler.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${review.rating.reconcile-batch-size:500}")
+    private int batchSize;
+
+    // Chạy ngay khi khởi động để điền tổng hợp cho các review có từ trước khi thêm cột
+    @Scheduled(fixedDelayString = "${review.rating.reconcile-ms:3600000}")
+    public void reconcile() {
+        int fixed = 0;
+        String afterId = "";
+        try {
+            String lastId;
+            while ((lastId = productRepository.findRatingBatchEnd(afterId, batchSize)) != null) {
+                fixed += productRepository.reconcileRatings(afterId, lastId);
+                afterId = lastId;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile rating aggregates after product {}: {}", afterId, e.getMessage());
+        }
+        if (fixed > 0) {
+            log.info("Reconciled rating aggregates of {} products", fixed);
+            resourceVersions.bump(ResourceVersions.Resource.PRODUCTS);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.component;
+
+import com.example.backend.service.SalesStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SalesStatsBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesStatsBackfillRunner.class);
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    // Lần đầu chạy (chưa có bảng sales_hour_stats): dựng bộ đếm từ lịch sử đơn hàng.
+    // Các lần sau bộ đếm được cộng/trừ trực tiếp khi đặt/hủy đơn.
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (!salesStatsService.isInitialized()) {
+                salesStatsService.rebuildFromHistory();
+                log.info("Sales counters rebuilt from order history");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild sales counters: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.backend.component;
+
+import com.example.backend.service.InventoryShardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Định kỳ chia đều lại tồn kho giữa các shard và đồng bộ tổng về bảng products
+// (để danh sách sản phẩm, báo cáo tồn kho thấy số gần đúng mà checkout không phải ghi dòng products).
+@Component
+public class StockShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockShardRebalancer.class);
+
+    @Autowired
+    private InventoryShardService inventoryShardService;
+
+    @Scheduled(fixedDelayString = "${inventory.shards.rebalance-ms:5000}")
+    public void rebalance() {
+        for (String productId : inventoryShardService.getShardedProductIds()) {
+            try {
+                inventoryShardService.rebalance(productId);
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance stock shards of {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backend.config;
+
+import com.example.backend.util.IdGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    // Mỗi instance chạy song song cần 1 node-id riêng (0-1023); để -1 thì lấy từ hostname
+    @Value("${app.node-id:-1}")
+    private long nodeId;
+
+    @PostConstruct
+    public void configure() {
+        long node = nodeId >= 0 ? nodeId : nodeFromHostname();
+        IdGenerator.configureNode(node);
+        log.info("ID generator node id = {}", node);
+    }
+
+    private long nodeFromHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & 0x3FF;
+        } catch (UnknownHostException e) {
+            return 0;
+        }
+    }
+}
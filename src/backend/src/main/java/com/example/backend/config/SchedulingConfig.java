@@ -0,0 +1,50 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    // Scheduler chung cho các job @Scheduled (rebalance shard, flush SSE, đối soát, làm mới gợi ý...).
+    // Tên "taskScheduler" để @Scheduled dùng bean này; mặc định của Spring chỉ có 1 thread.
+    @Bean(name = "taskScheduler")
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(
+            @Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Riêng cho mốc mở/đóng Flash Sale: job chậm khác không làm trễ giờ mở bán
+    @Bean(name = "flashSaleTaskScheduler")
+    public ThreadPoolTaskScheduler flashSaleTaskScheduler(
+            @Value("${flashsale.scheduler.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("flash-sale-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Ghi sự kiện SSE Flash Sale ra các kết nối. 1 thread để giữ đúng thứ tự sự kiện,
+    // hàng đợi giới hạn: khi client chậm làm dồn việc thì bỏ lô đang gửi thay vì giữ thread của scheduler.
+    @Bean(name = "flashSaleStreamExecutor")
+    public ThreadPoolTaskExecutor flashSaleStreamExecutor(
+            @Value("${flashsale.stream.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("flash-sale-sse-");
+        executor.initialize();
+        return executor;
+    }
+}
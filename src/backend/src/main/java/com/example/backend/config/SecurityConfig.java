@@ -46,6 +46,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/payment-methods/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/coupons/**").permitAll()
+                        .requestMatchers("/api/reviews/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/flash-sales/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/slideshows/public").permitAll()
@@ -84,6 +85,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/payments/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/payments/*/status").hasRole("ADMIN")
 
+                        .requestMatchers("/api/admin/inventory/**").hasRole("ADMIN")
                         .requestMatchers("/api/slideshows/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/slideshows/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/slideshows/**").hasRole("ADMIN")
@@ -102,7 +104,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "x-auth-token", "X-FlashSale-Ticket"));
+        configuration.setExposedHeaders(List.of("Retry-After"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
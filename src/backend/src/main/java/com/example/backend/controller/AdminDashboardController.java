@@ -1,5 +1,18 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.DashboardBundleDTO;
+import com.example.backend.DTO.DashboardOverviewDTO;
+import com.example.backend.DTO.LockConflictStatsDTO;
+import com.example.backend.DTO.LowStockProductDTO;
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.PeakHourDTO;
+import com.example.backend.DTO.RevenueComparisonDTO;
+import com.example.backend.DTO.RevenuePointDTO;
+import com.example.backend.DTO.StagnantProductDTO;
+import com.example.backend.DTO.StockAgingDTO;
+import com.example.backend.DTO.TopCustomerDTO;
+import com.example.backend.DTO.TopProductDTO;
+import com.example.backend.component.OptimisticRetryExecutor;
 import com.example.backend.service.AdminDashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -8,7 +21,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/dashboard")
@@ -18,13 +30,32 @@ public class AdminDashboardController {
     @Autowired
     private AdminDashboardService dashboardService;
 
+    @Autowired
+    private OptimisticRetryExecutor retryExecutor;
+
     @GetMapping("/overview")
-    public ResponseEntity<Map<String, Object>> getDashboardOverview() {
+    public ResponseEntity<DashboardOverviewDTO> getDashboardOverview() {
         return ResponseEntity.ok(dashboardService.getDashboardOverview());
     }
 
+    // Gom tất cả dữ liệu Dashboard vào 1 request, các section được tính song song
+    @GetMapping("/bundle")
+    public ResponseEntity<DashboardBundleDTO> getDashboardBundle(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "7_DAYS") String range
+    ) {
+        if (startDate == null) {
+            startDate = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
+        }
+        if (endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+        return ResponseEntity.ok(dashboardService.getDashboardBundle(startDate, endDate, range));
+    }
+
     @GetMapping("/orders/status")
-    public ResponseEntity<List<Map<String, Object>>> getOrderStatus(
+    public ResponseEntity<List<NameValueDTO>> getOrderStatus(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
     ) {
@@ -34,57 +65,67 @@ public class AdminDashboardController {
         if (endDate == null) {
             endDate = LocalDateTime.now();
         }
-        List<Map<String, Object>> result = dashboardService.getOrderStatusStats(startDate, endDate);
+        List<NameValueDTO> result = dashboardService.getOrderStatusStats(startDate, endDate);
 
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("/categories/top")
-    public ResponseEntity<List<Map<String, Object>>> getTopSellingCategories() {
+    public ResponseEntity<List<NameValueDTO>> getTopSellingCategories() {
         return ResponseEntity.ok(dashboardService.getTopSellingCategories());
     }
 
     @GetMapping("/products/top")
-    public ResponseEntity<List<Map<String, Object>>> getTopSellingProducts() {
+    public ResponseEntity<List<TopProductDTO>> getTopSellingProducts() {
         return ResponseEntity.ok(dashboardService.getTopSellingProducts());
     }
 
     @GetMapping("/customers/top")
-    public ResponseEntity<List<Map<String, Object>>> getTopCustomers() {
+    public ResponseEntity<List<TopCustomerDTO>> getTopCustomers() {
         return ResponseEntity.ok(dashboardService.getTopCustomers());
     }
 
     @GetMapping("/chart/revenue-comparison")
-    public ResponseEntity<List<Map<String, Object>>> getRevenueComparison() {
+    public ResponseEntity<List<RevenueComparisonDTO>> getRevenueComparison() {
         return ResponseEntity.ok(dashboardService.getRevenueComparison());
     }
 
     @GetMapping("/chart/revenue")
-    public ResponseEntity<List<Map<String, Object>>> getRevenueStats(
+    public ResponseEntity<List<RevenuePointDTO>> getRevenueStats(
             @RequestParam(defaultValue = "7_DAYS") String range) {
         return ResponseEntity.ok(dashboardService.getRevenueStatistics(range));
     }
 
     @GetMapping("/chart/revenue/custom")
-    public ResponseEntity<?> getRevenueChartCustom(
+    public ResponseEntity<List<RevenuePointDTO>> getRevenueChartCustom(
             @RequestParam String from,
             @RequestParam String to) {
         return ResponseEntity.ok(dashboardService.getRevenueStatisticsByDateRange(from, to));
     }
 
     @GetMapping("/orders/peak-hours")
-    public ResponseEntity<List<Map<String, Object>>> getPeakHours() {
+    public ResponseEntity<List<PeakHourDTO>> getPeakHours() {
         return ResponseEntity.ok(dashboardService.getPeakHoursStats());
     }
 
     @GetMapping("/products/low-stock")
-    public ResponseEntity<List<Map<String, Object>>> getLowStock() {
+    public ResponseEntity<List<LowStockProductDTO>> getLowStock() {
         return ResponseEntity.ok(dashboardService.getLowStockProducts());
     }
 
     @GetMapping("/products/stagnant")
-    public ResponseEntity<List<Map<String, Object>>> getStagnantProducts() {
+    public ResponseEntity<List<StagnantProductDTO>> getStagnantProducts() {
         return ResponseEntity.ok(dashboardService.getStagnantProducts());
     }
 
-}
\ No newline at end of file
+    @GetMapping("/products/stock-aging")
+    public ResponseEntity<List<StockAgingDTO>> getStockAging() {
+        return ResponseEntity.ok(dashboardService.getStockAging());
+    }
+
+    // Tỉ lệ xung đột optimistic lock của các thao tác đặt/hủy đơn
+    @GetMapping("/lock-conflicts")
+    public ResponseEntity<List<LockConflictStatsDTO>> getLockConflicts() {
+        return ResponseEntity.ok(retryExecutor.getStats());
+    }
+}
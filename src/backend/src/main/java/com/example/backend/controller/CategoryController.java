@@ -1,13 +1,19 @@
 package com.example.backend.controller;
 
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.component.ResourceVersions.Resource;
 import com.example.backend.model.Category;
 import com.example.backend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -17,6 +23,12 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${http.cache.categories.max-age-s:300}")
+    private long maxAgeSeconds;
+
     @PostMapping
     public ResponseEntity<Category> createCategory(@RequestBody Category category) {
         Category created = categoryService.createCategory(category);
@@ -45,8 +57,9 @@ public class CategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> list = categoryService.getAllCategories();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return resourceVersions.conditionalGet(Resource.CATEGORIES, request,
+                CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic(),
+                categoryService::getAllCategories);
     }
 }
@@ -1,10 +1,16 @@
 package com.example.backend.controller;
 
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.component.ResourceVersions.Resource;
 import com.example.backend.model.Coupon;
 import com.example.backend.service.CouponService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.Map;
 import java.util.List;
 
@@ -16,9 +22,14 @@ public class CouponController {
     @Autowired
     private CouponService couponService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @GetMapping
-    public List<Coupon> getAllCoupons() {
-        return couponService.getAllCoupons();
+    public ResponseEntity<List<Coupon>> getAllCoupons(WebRequest request) {
+        // Lượt dùng đổi theo đơn hàng: luôn hỏi lại, chưa đổi thì 304
+        return resourceVersions.conditionalGet(Resource.COUPONS, request,
+                CacheControl.noCache().cachePublic(), couponService::getAllCoupons);
     }
 
     @GetMapping("/{id}")
@@ -40,8 +51,16 @@ public class CouponController {
     }
 
     @PutMapping("/{id}")
-    public Coupon updateCoupon(@PathVariable Integer id, @RequestBody Coupon coupon) {
-        return couponService.updateCoupon(id, coupon);
+    public ResponseEntity<?> updateCoupon(@PathVariable Integer id, @RequestBody Coupon coupon) {
+        if (coupon.getVersion() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Thiếu version của mã giảm giá, vui lòng tải lại"));
+        }
+        try {
+            return ResponseEntity.ok(couponService.updateCoupon(id, coupon));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Mã giảm giá vừa được cập nhật ở nơi khác, vui lòng tải lại trước khi lưu"));
+        }
     }
 
     @PutMapping("/{id}/status")
@@ -2,11 +2,15 @@ package com.example.backend.controller;
 
 import com.example.backend.DTO.FlashSaleDTO;
 import com.example.backend.DTO.FlashSaleItemDTO;
+import com.example.backend.DTO.FlashSaleSnapshot;
+import com.example.backend.component.FlashSaleStockBroadcaster;
 import com.example.backend.model.FlashSale;
 import com.example.backend.service.FlashSaleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -19,14 +23,28 @@ public class FlashSaleController {
     @Autowired
     private FlashSaleService flashSaleService;
 
+    @Autowired
+    private FlashSaleStockBroadcaster stockBroadcaster;
+
     @GetMapping("/all-admin")
     public ResponseEntity<List<FlashSaleDTO>> getAllFlashSales() {
         return ResponseEntity.ok(flashSaleService.getAllFlashSales());
     }
 
+    // Payload dựng sẵn; client gửi If-None-Match trùng ETag sẽ nhận 304 (không serialize lại)
     @GetMapping("/current")
     public ResponseEntity<FlashSaleDTO> getCurrentFlashSale() {
-        return ResponseEntity.ok(flashSaleService.getCurrentFlashSale());
+        FlashSaleSnapshot snapshot = flashSaleService.getCurrentFlashSaleSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.sale());
+    }
+
+    // Luồng SSE: đẩy số suất đã bán theo lô (event "stock") thay cho việc client poll /current
+    @GetMapping(value = "/current/stream", produces = "text/event-stream")
+    public SseEmitter streamCurrentFlashSale() {
+        return stockBroadcaster.subscribe();
     }
 
     @PostMapping
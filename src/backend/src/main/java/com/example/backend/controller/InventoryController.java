@@ -0,0 +1,47 @@
+package com.example.backend.controller;
+
+import com.example.backend.DTO.ProductStockDTO;
+import com.example.backend.service.InventoryShardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+@CrossOrigin(origins = "*")
+public class InventoryController {
+
+    @Autowired
+    private InventoryShardService inventoryShardService;
+
+    @Value("${inventory.shards.default-count:8}")
+    private int defaultShardCount;
+
+    // Tồn kho chính xác (cộng từ shard nếu sản phẩm đang chia shard)
+    @GetMapping("/{productId}")
+    public ResponseEntity<ProductStockDTO> getStock(@PathVariable String productId) {
+        return ResponseEntity.ok(inventoryShardService.getStock(productId));
+    }
+
+    // Bật chế độ chia shard cho sản phẩm bán chạy, body: { "shardCount": 8 } (tùy chọn)
+    @PutMapping("/{productId}/shards")
+    public ResponseEntity<?> enableSharding(@PathVariable String productId,
+                                            @RequestBody(required = false) Map<String, Integer> body) {
+        int shardCount = body != null && body.get("shardCount") != null ? body.get("shardCount") : defaultShardCount;
+        try {
+            inventoryShardService.enableSharding(productId, shardCount);
+            return ResponseEntity.ok(inventoryShardService.getStock(productId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{productId}/shards")
+    public ResponseEntity<ProductStockDTO> disableSharding(@PathVariable String productId) {
+        inventoryShardService.disableSharding(productId);
+        return ResponseEntity.ok(inventoryShardService.getStock(productId));
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.FlashSaleAdmissionDTO;
+import com.example.backend.component.OptimisticRetryExecutor;
+import com.example.backend.DTO.OrderDetailCreateDTO;
 import com.example.backend.model.Order;
+import com.example.backend.model.OrderDetail;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.FlashSaleAdmissionService;
 import com.example.backend.service.OrderService;
 import com.example.backend.DTO.OrderDTO;
 import com.example.backend.DTO.OrderReplaceRequest;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,27 +26,55 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class OrderController {
 
+    // Vé phòng chờ Flash Sale (nhận được trong response 429 trước đó)
+    private static final String TICKET_HEADER = "X-FlashSale-Ticket";
+
     private final OrderService orderService;
+    private final FlashSaleAdmissionService admissionService;
+    private final OptimisticRetryExecutor retryExecutor;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, FlashSaleAdmissionService admissionService,
+                           OptimisticRetryExecutor retryExecutor) {
         this.orderService = orderService;
+        this.admissionService = admissionService;
+        this.retryExecutor = retryExecutor;
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<Order> checkoutOrder(@RequestBody Order order) {
+    public ResponseEntity<?> checkoutOrder(@RequestBody Order order, Authentication auth,
+                                           @RequestHeader(value = TICKET_HEADER, required = false) String ticket) {
+        String userId = currentUserId(auth);
+        if (userId == null) return unauthorized();
+        FlashSaleAdmissionDTO admission = admissionService.admit(userId, flashQuantitiesOf(order), ticket);
+        if (admission.status() != FlashSaleAdmissionDTO.Status.ADMITTED) {
+            return rejectAdmission(admission);
+        }
         try {
-            Order savedOrder = orderService.checkoutOrder(order);
-            return ResponseEntity.ok(savedOrder);
+            Order savedOrder = retryExecutor.execute("checkout", () -> orderService.checkoutOrder(order));
+            return ResponseEntity.ok(new OrderDTO(savedOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(null);
         }
     }
 
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody Order order) {
+    public ResponseEntity<?> createOrder(@RequestBody Order order, Authentication auth,
+                                         @RequestHeader(value = TICKET_HEADER, required = false) String ticket) {
+        if (Boolean.TRUE.equals(order.getIsOrder())) {
+            String userId = currentUserId(auth);
+            if (userId == null) return unauthorized();
+            FlashSaleAdmissionDTO admission = admissionService.admit(userId, flashQuantitiesOf(order), ticket);
+            if (admission.status() != FlashSaleAdmissionDTO.Status.ADMITTED) {
+                return rejectAdmission(admission);
+            }
+        }
         try {
-            Order savedOrder = orderService.createOrder(order);
-            return ResponseEntity.ok(savedOrder);
+            Order savedOrder = retryExecutor.execute("create-order", () -> orderService.createOrder(order));
+            return ResponseEntity.ok(new OrderDTO(savedOrder));
+        } catch (OptimisticLockingFailureException ex) {
+            return conflict();
         } catch (RuntimeException ex) {
             return ResponseEntity
                     .badRequest()
@@ -46,18 +84,27 @@ public class OrderController {
 
 
     @PostMapping("/replace")
-    public ResponseEntity<?> replaceOrder(@RequestBody OrderReplaceRequest request) {
+    public ResponseEntity<?> replaceOrder(@RequestBody OrderReplaceRequest request, Authentication auth,
+                                          @RequestHeader(value = TICKET_HEADER, required = false) String ticket) {
+        String userId = currentUserId(auth);
+        if (userId == null) return unauthorized();
+        FlashSaleAdmissionDTO admission = admissionService.admit(userId, flashQuantitiesOf(request), ticket);
+        if (admission.status() != FlashSaleAdmissionDTO.Status.ADMITTED) {
+            return rejectAdmission(admission);
+        }
         try {
-            Order newOrder = orderService.replaceOrder(request);
+            Order newOrder = retryExecutor.execute("replace-order", () -> orderService.replaceOrder(request));
             return ResponseEntity.ok(new OrderDTO(newOrder));
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (Exception e) {
             return ResponseEntity.status(400).body(e.getMessage());
         }
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<OrderDTO>> getAllOrders() {
+        return ResponseEntity.ok(orderService.getAllOrders().stream().map(OrderDTO::new).toList());
     }
 
     @GetMapping("/user/{userId}")
@@ -67,21 +114,21 @@ public class OrderController {
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable String orderId) {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable String orderId) {
         Order order = orderService.getOrderById(orderId);
         if (order != null)
-            return ResponseEntity.ok(order);
+            return ResponseEntity.ok(new OrderDTO(order));
         return ResponseEntity.notFound().build();
     }
 
     @PutMapping("/{orderId}")
-    public ResponseEntity<Order> updateOrder(
+    public ResponseEntity<OrderDTO> updateOrder(
             @PathVariable String orderId,
             @RequestBody Order updatedOrder
     ) {
         try {
             Order savedOrder = orderService.updateOrder(orderId, updatedOrder);
-            return ResponseEntity.ok(savedOrder);
+            return ResponseEntity.ok(new OrderDTO(savedOrder));
         } catch (RuntimeException e) {
             return ResponseEntity.status(404).body(null);
         }
@@ -111,8 +158,66 @@ public class OrderController {
     @PostMapping("/{orderId}/cancel")
     public ResponseEntity<?> cancelOrder(@PathVariable String orderId, @RequestBody Map<String, String> payload) {
         String reason = payload.get("reason");
-        orderService.cancelOrder(orderId, reason);
+        try {
+            retryExecutor.run("cancel-order", () -> orderService.cancelOrder(orderId, reason));
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
+        }
         return ResponseEntity.ok("Đã hủy đơn hàng thành công.");
     }
 
+    // Đã thử lại nhiều lần vẫn xung đột (sản phẩm/mã giảm giá đang bị cập nhật liên tục)
+    private ResponseEntity<Map<String, String>> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Sản phẩm đang được nhiều người đặt cùng lúc, vui lòng thử lại!"));
+    }
+
+
+    // --- CỔNG FLASH SALE ---
+
+    // Giới hạn lượt theo người dùng phải dựa trên tài khoản đã xác thực, không tin userId trong body
+    private String currentUserId(Authentication auth) {
+        return auth != null && auth.getPrincipal() instanceof UserDetailsImpl userDetails
+                ? userDetails.getUser().getUserId() : null;
+    }
+
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "Vui lòng đăng nhập để đặt hàng"));
+    }
+
+    private ResponseEntity<FlashSaleAdmissionDTO> rejectAdmission(FlashSaleAdmissionDTO admission) {
+        HttpStatus status = admission.status() == FlashSaleAdmissionDTO.Status.SOLD_OUT
+                ? HttpStatus.CONFLICT
+                : HttpStatus.TOO_MANY_REQUESTS;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (admission.etaMs() != null && admission.etaMs() > 0) {
+            builder.header("Retry-After", String.valueOf((admission.etaMs() + 999) / 1000));
+        }
+        return builder.body(admission);
+    }
+
+    private Map<String, Integer> flashQuantitiesOf(Order order) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (order.getOrderDetails() != null) {
+            for (OrderDetail detail : order.getOrderDetails()) {
+                if (detail.getIsFlashSale() != null && detail.getIsFlashSale() == 1 && detail.getProduct() != null) {
+                    quantities.merge(detail.getProduct().getProductId(), detail.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    private Map<String, Integer> flashQuantitiesOf(OrderReplaceRequest request) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (request.getOrderDetails() != null) {
+            for (OrderDetailCreateDTO detail : request.getOrderDetails()) {
+                if (detail.getIsFlashSale() != null && detail.getIsFlashSale() == 1 && detail.getProduct() != null) {
+                    quantities.merge(detail.getProduct().getProductId(), detail.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        return quantities;
+    }
 }
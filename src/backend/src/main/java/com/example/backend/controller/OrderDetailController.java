@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.OrderDetailDTO;
 import com.example.backend.model.OrderDetail;
 import com.example.backend.service.OrderDetailService;
 import org.springframework.http.ResponseEntity;
@@ -18,26 +19,26 @@ public class OrderDetailController {
     }
 
     @GetMapping
-    public List<OrderDetail> getAll() {
-        return orderDetailService.getAllOrderDetails();
+    public List<OrderDetailDTO> getAll() {
+        return orderDetailService.getAllOrderDetails().stream().map(OrderDetailDTO::new).toList();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDetail> getById(@PathVariable String id) {
+    public ResponseEntity<OrderDetailDTO> getById(@PathVariable String id) {
         return orderDetailService.getOrderDetailById(id)
-                .map(ResponseEntity::ok)
+                .map(detail -> ResponseEntity.ok(new OrderDetailDTO(detail)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public OrderDetail create(@RequestBody OrderDetail orderDetail) {
-        return orderDetailService.createOrderDetail(orderDetail);
+    public OrderDetailDTO create(@RequestBody OrderDetail orderDetail) {
+        return new OrderDetailDTO(orderDetailService.createOrderDetail(orderDetail));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<OrderDetail> update(@PathVariable String id, @RequestBody OrderDetail orderDetail) {
+    public ResponseEntity<OrderDetailDTO> update(@PathVariable String id, @RequestBody OrderDetail orderDetail) {
         try {
-            return ResponseEntity.ok(orderDetailService.updateOrderDetail(id, orderDetail));
+            return ResponseEntity.ok(new OrderDetailDTO(orderDetailService.updateOrderDetail(id, orderDetail)));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -51,7 +52,7 @@ public class OrderDetailController {
 
     // API trả về luôn order + product
     @GetMapping("/user/{userId}")
-    public List<OrderDetail> getOrderDetailsWithOrderAndProduct(@PathVariable String userId) {
-        return orderDetailService.getOrderDetailsWithOrderAndProduct(userId);
+    public List<OrderDetailDTO> getOrderDetailsWithOrderAndProduct(@PathVariable String userId) {
+        return orderDetailService.getOrderDetailsWithOrderAndProduct(userId).stream().map(OrderDetailDTO::new).toList();
     }
 }
@@ -1,12 +1,18 @@
 package com.example.backend.controller;
 
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.component.ResourceVersions.Resource;
 import com.example.backend.model.PaymentMethod;
 import com.example.backend.service.PaymentMethodService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/payment-methods")
@@ -16,9 +22,17 @@ public class PaymentMethodController {
     @Autowired
     private PaymentMethodService service;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${http.cache.payment-methods.max-age-s:600}")
+    private long maxAgeSeconds;
+
     @GetMapping
-    public List<PaymentMethod> getAll() {
-        return service.getAll();
+    public ResponseEntity<List<PaymentMethod>> getAll(WebRequest request) {
+        return resourceVersions.conditionalGet(Resource.PAYMENT_METHODS, request,
+                CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic(),
+                service::getAll);
     }
 
     @GetMapping("/{id}")
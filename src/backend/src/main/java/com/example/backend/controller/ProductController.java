@@ -1,21 +1,53 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.AutocompleteSuggestionDTO;
+import com.example.backend.DTO.CatalogPageDTO;
+import com.example.backend.DTO.CatalogQuery;
+import com.example.backend.DTO.ProductDTO;
+import com.example.backend.DTO.ProductSearchHitDTO;
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.component.ResourceVersions.Resource;
 import com.example.backend.model.Product;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.AutocompleteService;
+import com.example.backend.service.CatalogQueryService;
+import com.example.backend.service.ProductSearchService;
 import com.example.backend.service.ProductService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin("*")
 public class ProductController {
 
+    // Tồn kho đổi theo từng đơn: trình duyệt luôn hỏi lại, nhưng chưa đổi thì chỉ nhận 304
+    private static final CacheControl PRODUCT_CACHE = CacheControl.noCache().cachePublic();
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final AutocompleteService autocompleteService;
+    private final CatalogQueryService catalogQueryService;
+    private final ResourceVersions resourceVersions;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+                             AutocompleteService autocompleteService, CatalogQueryService catalogQueryService,
+                             ResourceVersions resourceVersions) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.autocompleteService = autocompleteService;
+        this.catalogQueryService = catalogQueryService;
+        this.resourceVersions = resourceVersions;
     }
 
     // // GET ALL
@@ -25,32 +57,93 @@ public class ProductController {
     // }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(
-            @RequestParam(required = false) String categoryId) {
-        List<Product> products;
-        if (categoryId != null && !categoryId.isEmpty()) {
-            products = productService.getProductsByCategoryId(categoryId);
-        } else {
-            products = productService.getAllProducts();
-        }
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+            @RequestParam(required = false) String categoryId, WebRequest request) {
+        return resourceVersions.conditionalGet(Resource.PRODUCTS, request, PRODUCT_CACHE, () -> {
+            List<Product> products;
+            if (categoryId != null && !categoryId.isEmpty()) {
+                products = productService.getProductsByCategoryId(categoryId);
+            } else {
+                products = productService.getAllProducts();
+            }
+            return toDTOs(products);
+        });
+    }
+
+    // Danh sách có lọc nhiều điều kiện + số lượng theo từng giá trị lọc (facet)
+    // VD: /api/products/catalog?color=Nâu&color=Trắng&material=Gỗ sồi&priceBand=1000000-3000000&inStock=true&sort=price_asc
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogPageDTO> getCatalog(
+            @RequestParam(required = false) List<String> categoryId,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> material,
+            @RequestParam(required = false) List<String> size,
+            @RequestParam(required = false) List<String> origin,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "24") int limit) {
+        return ResponseEntity.ok(catalogQueryService.query(new CatalogQuery(categoryId, color, material, size,
+                origin, priceBand, minPrice, maxPrice, inStock, sort, page, limit)));
+    }
+
+    // Tìm kiếm toàn văn: không phân biệt dấu, chịu được gõ sai 1-2 ký tự, xếp theo độ liên quan
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchHitDTO>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<ProductSearchHitDTO> hits = productSearchService.search(query, limit);
+        if (!hits.isEmpty()) autocompleteService.recordQuery(query);
+        return ResponseEntity.ok(hits);
+    }
+
+    // Gợi ý khi gõ ô tìm kiếm
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDTO>> autocomplete(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(autocompleteService.suggest(prefix, limit));
+    }
+
+    // "Gợi ý cho bạn" ở trang chủ; chưa đăng nhập -> sản phẩm bán chạy
+    @GetMapping("/recommended")
+    public List<ProductDTO> getRecommended(Authentication auth,
+                                           @RequestParam(defaultValue = "12") int limit) {
+        String userId = auth != null && auth.getPrincipal() instanceof UserDetailsImpl userDetails
+                ? userDetails.getUser().getUserId() : null;
+        return toDTOs(productService.getRecommendedForUser(userId, Math.max(1, Math.min(limit, 50))));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable String id) {
-        return productService.getProductById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable String id, WebRequest request) {
+        ResponseEntity<ProductDTO> response = resourceVersions.conditionalGet(Resource.PRODUCTS, request, PRODUCT_CACHE,
+                () -> productService.getProductById(id).map(ProductDTO::new).orElse(null));
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return response;
     }
 
     @PostMapping
-    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
-        return ResponseEntity.ok(productService.createProduct(product));
+    public ResponseEntity<ProductDTO> createProduct(@RequestBody Product product) {
+        return ResponseEntity.ok(new ProductDTO(productService.createProduct(product)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable String id, @RequestBody Product product) {
-        return ResponseEntity.ok(productService.updateProduct(id, product));
+    public ResponseEntity<?> updateProduct(@PathVariable String id, @RequestBody Product product) {
+        // Bắt buộc gửi version lúc tải form, không thì số tồn kho cũ trong form sẽ ghi đè lượng checkout vừa trừ
+        if (product.getVersion() == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Thiếu version của sản phẩm, vui lòng tải lại"));
+        }
+        try {
+            return ResponseEntity.ok(new ProductDTO(productService.updateProduct(id, product)));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Sản phẩm vừa được cập nhật ở nơi khác, vui lòng tải lại trước khi lưu"));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -60,7 +153,19 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/related")
-    public List<Product> getRelatedProducts(@PathVariable("id") String id) {
-        return productService.getRelatedProducts(id);
+    public List<ProductDTO> getRelatedProducts(@PathVariable("id") String id) {
+        return toDTOs(productService.getRelatedProducts(id));
+    }
+
+    @GetMapping("/{id}/bought-together")
+    public List<ProductDTO> getFrequentlyBoughtTogether(@PathVariable("id") String id) {
+        return toDTOs(productService.getFrequentlyBoughtTogether(id));
+    }
+
+    // Trả DTO thay vì entity: không kéo theo proxy Hibernate / field nội bộ (shard, tổng hợp sao...)
+    private static List<ProductDTO> toDTOs(List<Product> products) {
+        List<ProductDTO> dtos = new ArrayList<>(products.size());
+        for (Product product : products) dtos.add(new ProductDTO(product));
+        return dtos;
     }
 }
@@ -1,12 +1,19 @@
 package com.example.backend.controller;
 
 import com.example.backend.DTO.ReviewDTO;
+import com.example.backend.DTO.ReviewPageDTO;
 import com.example.backend.service.ReviewService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +24,9 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // GET: Lấy tất cả đánh giá
     @GetMapping
     public ResponseEntity<List<ReviewDTO>> getAllReviews() {
@@ -29,6 +39,34 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getReviewsByProductId(productId));
     }
 
+    // GET: Đánh giá theo trang (keyset), ví dụ /product/P01/page?sort=highest&cursor=...&limit=10
+    @GetMapping("/product/{productId}/page")
+    public ResponseEntity<ReviewPageDTO> getReviewPage(@PathVariable String productId,
+                                                       @RequestParam(defaultValue = "newest") String sort,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(reviewService.getReviewPage(productId, sort, cursor, limit));
+    }
+
+    // GET (ADMIN): Toàn bộ đánh giá để kiểm duyệt, ghi dần ra JSON array thay vì dựng cả danh sách
+    @GetMapping("/admin/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllReviews() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                reviewService.streamAllReviews(review -> {
+                    try {
+                        objectMapper.writeValue(json, review);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     // POST: Tạo đánh giá mới
     @PostMapping
     public ResponseEntity<ReviewDTO> createReview(@RequestBody ReviewDTO reviewDTO) {
@@ -1,12 +1,19 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.SlideshowDTO;
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.component.ResourceVersions.Resource;
 import com.example.backend.model.Slideshow;
 import com.example.backend.service.SlideshowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/slideshows")
@@ -16,24 +23,32 @@ public class SlideshowController {
     @Autowired
     private SlideshowService slideshowService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${http.cache.slideshows.max-age-s:600}")
+    private long maxAgeSeconds;
+
     @GetMapping("/public")
-    public ResponseEntity<List<Slideshow>> getPublicSlides() {
-        return ResponseEntity.ok(slideshowService.getActiveSlideshowsForUser());
+    public ResponseEntity<List<SlideshowDTO>> getPublicSlides(WebRequest request) {
+        return resourceVersions.conditionalGet(Resource.SLIDESHOWS, request,
+                CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic(),
+                () -> slideshowService.getActiveSlideshowsForUser().stream().map(SlideshowDTO::from).toList());
     }
 
     @GetMapping("/admin")
-    public ResponseEntity<List<Slideshow>> getAllSlides() {
-        return ResponseEntity.ok(slideshowService.getAllSlideshowsForAdmin());
+    public ResponseEntity<List<SlideshowDTO>> getAllSlides() {
+        return ResponseEntity.ok(slideshowService.getAllSlideshowsForAdmin().stream().map(SlideshowDTO::from).toList());
     }
 
     @PostMapping("/admin")
-    public ResponseEntity<Slideshow> createSlide(@RequestBody Slideshow slideshow) {
-        return ResponseEntity.ok(slideshowService.createSlideshow(slideshow));
+    public ResponseEntity<SlideshowDTO> createSlide(@RequestBody Slideshow slideshow) {
+        return ResponseEntity.ok(SlideshowDTO.from(slideshowService.createSlideshow(slideshow)));
     }
 
     @PutMapping("/admin/{id}")
-    public ResponseEntity<Slideshow> updateSlide(@PathVariable Long id, @RequestBody Slideshow slideshow) {
-        return ResponseEntity.ok(slideshowService.updateSlideshow(id, slideshow));
+    public ResponseEntity<SlideshowDTO> updateSlide(@PathVariable Long id, @RequestBody Slideshow slideshow) {
+        return ResponseEntity.ok(SlideshowDTO.from(slideshowService.updateSlideshow(id, slideshow)));
     }
 
     @DeleteMapping("/admin/{id}")
@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.DTO.UserDTO;
 import com.example.backend.model.User;
 import com.example.backend.security.UserDetailsImpl;
 import com.example.backend.service.UserService;
@@ -21,22 +22,22 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserDTO>> getAllUsers() {
+        return ResponseEntity.ok(userService.getAllUsers().stream().map(UserDTO::from).toList());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable String id) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable String id) {
         return userService.getUserById(id)
-                .map(ResponseEntity::ok)
+                .map(user -> ResponseEntity.ok(UserDTO.from(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable String id, @RequestBody User user) {
+    public ResponseEntity<UserDTO> updateUser(@PathVariable String id, @RequestBody User user) {
         User updated = userService.updateUser(id, user);
         if (updated == null) return ResponseEntity.notFound().build();
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok(UserDTO.from(updated));
     }
 
     @DeleteMapping("/{id}")
@@ -48,12 +49,12 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<User> getProfile(Authentication auth) {
+    public ResponseEntity<UserDTO> getProfile(Authentication auth) {
         if (auth == null || !(auth.getPrincipal() instanceof UserDetailsImpl)) {
             return ResponseEntity.status(401).build(); // Unauthorized
         }
 
         UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
-        return ResponseEntity.ok(userDetails.getUser());
+        return ResponseEntity.ok(UserDTO.from(userDetails.getUser()));
     }
 }
@@ -0,0 +1,5 @@
+package com.example.backend.event;
+
+// Phát ra khi Flash Sale được tạo / sửa / xóa / đổi trạng thái / thêm sản phẩm
+public record FlashSaleChangedEvent(Integer flashSaleId) {
+}
@@ -0,0 +1,7 @@
+package com.example.backend.event;
+
+import java.util.List;
+
+// Phát ra khi đơn thật được tạo (các mô hình gợi ý sản phẩm lắng nghe để cập nhật sau khi commit)
+public record OrderPlacedEvent(String orderId, String userId, List<String> productIds) {
+}
@@ -0,0 +1,5 @@
+package com.example.backend.event;
+
+// Phát ra khi sản phẩm được tạo / sửa / xóa (các bảng giá, chỉ mục trong bộ nhớ lắng nghe để cập nhật)
+public record ProductChangedEvent(String productId) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.event;
+
+// Phát ra khi tổng hợp đánh giá của sản phẩm đổi (thêm / sửa / xóa review).
+// Tách khỏi ProductChangedEvent để chỉ các thành phần hiển thị/sắp xếp theo điểm phải cập nhật.
+public record ProductRatingChangedEvent(String productId) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.event;
+
+// Phát ra khi tồn kho / số đã bán trên dòng products đổi do đặt đơn, hủy đơn hoặc đồng bộ shard.
+// Tách khỏi ProductChangedEvent để chỉ các chỉ mục lọc/sắp xếp theo tồn kho phải cập nhật.
+public record ProductStockChangedEvent(String productId) {
+}
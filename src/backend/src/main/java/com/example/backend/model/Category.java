@@ -1,13 +1,18 @@
 package com.example.backend.model;
 
+import com.example.backend.component.ResourceVersionEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
+@EntityListeners(ResourceVersionEntityListener.class)
 @Table(name = "CATEGORIES")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,4 +28,10 @@ public class Category {
 
     @Column(name = "description", length = 255)
     private String description;
+
+    // Tổng số lượng đã bán của các sản phẩm trong danh mục.
+    // Chỉ dùng nội bộ (thống kê, gợi ý): không đưa ra JSON để danh sách danh mục không đổi ETag theo từng đơn hàng
+    @JsonIgnore
+    @Column(name = "sold_count", columnDefinition = "BIGINT DEFAULT 0")
+    private long soldCount;
 }
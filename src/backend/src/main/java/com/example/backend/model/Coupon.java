@@ -1,5 +1,6 @@
 package com.example.backend.model;
 
+import com.example.backend.component.ResourceVersionEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -9,6 +10,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 
 @Entity
+@EntityListeners(ResourceVersionEntityListener.class)
 @Table(name = "coupons")
 @Data
 @NoArgsConstructor
@@ -21,6 +23,11 @@ public class Coupon {
     @Column(name = "coupon_id")
     private Integer couponId;
 
+    // Nhiều đơn dùng mã cùng lúc cùng tăng usedCount -> phát hiện xung đột thay vì đếm thiếu
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     @Column(name = "code", nullable = false, unique = true, length = 50)
     private String code;
 
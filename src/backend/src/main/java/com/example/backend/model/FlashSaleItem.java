@@ -15,6 +15,11 @@ public class FlashSaleItem {
     @Column(name = "flash_sale_item_id")
     private Integer flashSaleItemId;
 
+    // Chống 2 checkout cùng đọc soldCount cũ rồi ghi đè nhau (bán vượt suất)
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "flash_sale_id", nullable = false)
     private FlashSale flashSale;
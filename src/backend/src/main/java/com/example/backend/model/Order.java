@@ -1,9 +1,11 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,10 +13,28 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+// Mọi quan hệ đều tải lười; mỗi nhu cầu đọc chọn 1 graph để lấy đủ trong 1 câu query
+@NamedEntityGraph(name = Order.WITH_LINES,
+        attributeNodes = @NamedAttributeNode(value = "orderDetails", subgraph = "lines"),
+        subgraphs = @NamedSubgraph(name = "lines", attributeNodes = @NamedAttributeNode("product")))
+@NamedEntityGraph(name = Order.WITH_LINES_AND_PAYMENT,
+        attributeNodes = {
+                @NamedAttributeNode(value = "orderDetails", subgraph = "lines"),
+                @NamedAttributeNode("payment")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "lines", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Order {
+public class Order implements Persistable<String> {
+
+    // Dòng hàng + sản phẩm: hủy đơn (hoàn kho), email hóa đơn
+    public static final String WITH_LINES = "Order.withLines";
+    // Dòng hàng + sản phẩm (kèm danh mục) + thanh toán: lịch sử đơn, giỏ hàng, trang admin, xem chi tiết đơn
+    public static final String WITH_LINES_AND_PAYMENT = "Order.withLinesAndPayment";
 
     @Id
     @Column(name = "order_id", length = 50)
@@ -55,6 +75,34 @@ public class Order {
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Payment payment;
 
+    // ID tự gán nên Spring Data không tự biết đơn mới hay cũ và sẽ merge (SELECT đơn + từng dòng chi tiết).
+    // Đánh dấu đơn mới -> save() gọi persist, các INSERT order_details được gom batch.
+    @Transient
+    @JsonIgnore
+    private boolean newOrder;
+
+    public void markNew() {
+        this.newOrder = true;
+    }
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return orderId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newOrder;
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        this.newOrder = false;
+    }
+
     @PrePersist
     protected void onCreate() {
         if (orderDate == null) {
@@ -2,13 +2,12 @@ package com.example.backend.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
+import com.example.backend.util.IdGenerator;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
@@ -23,12 +22,12 @@ public class OrderDetail {
     @Column(name = "order_detail_id", length = 50)
     private String orderDetailId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     @JsonBackReference
     private Order order;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -46,6 +45,13 @@ public class OrderDetail {
     @Transient
     private Integer isFlashSale;
 
+    // Dòng mua theo Flash Sale: lưu đợt sale và giá áp dụng để hủy đơn hoàn đúng suất
+    @Column(name = "flash_sale_id")
+    private Integer flashSaleId;
+
+    @Column(name = "flash_sale_price")
+    private BigDecimal flashSalePrice;
+
     @PrePersist
     public void prePersist() {
         if (this.orderDetailId == null) {
@@ -54,8 +60,7 @@ public class OrderDetail {
     }
 
     private String generateOrderDetailId() {
-        return "OD" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"))
-                + "-" + java.util.UUID.randomUUID().toString().substring(0, 8);
+        return IdGenerator.nextId("OD");
     }
 
     public BigDecimal getSubtotal() {
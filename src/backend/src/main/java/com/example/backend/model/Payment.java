@@ -18,7 +18,7 @@ public class Payment {
     @Column(name = "payment_id", length = 50)
     private String paymentId;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @JoinColumn(name = "order_id", referencedColumnName = "order_id")
     private Order order;
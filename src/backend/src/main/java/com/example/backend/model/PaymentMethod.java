@@ -1,5 +1,6 @@
 package com.example.backend.model;
 
+import com.example.backend.component.ResourceVersionEntityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 
 @Entity
+@EntityListeners(ResourceVersionEntityListener.class)
 @Table(name = "payment_methods")
 @Data
 @NoArgsConstructor
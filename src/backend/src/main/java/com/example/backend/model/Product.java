@@ -1,5 +1,6 @@
 package com.example.backend.model;
 
+import com.example.backend.component.ResourceVersionEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -7,9 +8,17 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "Products")
+@EntityListeners(ResourceVersionEntityListener.class)
+@Table(name = "Products", indexes = {
+        @Index(name = "idx_products_last_sold_at", columnList = "last_sold_at"),
+        @Index(name = "idx_products_quantity", columnList = "quantity"),
+        @Index(name = "idx_products_sold_count", columnList = "sold_count")
+})
+// Bỏ các field nội bộ của proxy Hibernate khi entity (đã tải lười) được trả thẳng ra JSON
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +29,11 @@ public class Product {
     @Column(name = "product_id", length = 50)
     private String productId;
 
+    // Optimistic locking: checkout, hủy đơn và admin sửa cùng 1 sản phẩm -> transaction đến sau bị từ chối thay vì ghi đè tồn kho
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     @Column(name = "product_name", nullable = false, length = 100)
     private String productName;
 
@@ -59,7 +73,49 @@ public class Product {
     @Column(name = "created_at", updatable = false, insertable = false)
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    // Thời điểm bán gần nhất (cập nhật khi đặt hàng), dùng cho báo cáo hàng tồn/hàng ế
+    @Column(name = "last_sold_at")
+    private LocalDateTime lastSoldAt;
+
+    // Tổng số lượng đã bán (đơn thật, trừ đơn hủy) - cộng dồn khi đặt/hủy đơn
+    @Column(name = "sold_count", columnDefinition = "BIGINT DEFAULT 0")
+    private long soldCount;
+
+    // Sản phẩm "nóng": tồn kho chia thành nhiều dòng product_stock_shards, checkout trừ trên 1 shard ngẫu nhiên.
+    // Khi bật, quantity/soldCount/lastSoldAt ở đây được StockShardRebalancer đồng bộ định kỳ từ các shard.
+    @Column(name = "stock_sharded", columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean stockSharded;
+
+    // Tổng hợp đánh giá, cộng/trừ trực tiếp bằng UPDATE khi thêm/sửa/xóa review (ProductRepository.adjustRating).
+    // insertable/updatable = false: lưu entity Product (admin sửa, trừ kho) không ghi đè các cột này bằng giá trị cũ.
+    @Column(name = "rating_count", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int ratingCount;
+
+    @Column(name = "rating_sum", columnDefinition = "BIGINT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private long ratingSum;
+
+    // Số review theo từng mức sao
+    @Column(name = "rating_1", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int rating1;
+
+    @Column(name = "rating_2", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int rating2;
+
+    @Column(name = "rating_3", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int rating3;
+
+    @Column(name = "rating_4", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int rating4;
+
+    @Column(name = "rating_5", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int rating5;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "category_id", insertable = false, updatable = false)
     private Category category;
+
+    // Điểm trung bình (1 chữ số thập phân), 0 nếu chưa có đánh giá
+    public double getRatingAverage() {
+        return ratingCount == 0 ? 0 : Math.round(ratingSum * 10.0 / ratingCount) / 10.0;
+    }
 }
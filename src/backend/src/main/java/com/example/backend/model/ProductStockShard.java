@@ -0,0 +1,41 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 1 phần tồn kho của sản phẩm "nóng" (Product.stockSharded). Checkout chỉ khóa 1 dòng shard
+// thay vì dòng products, nên N shard cho phép N checkout song song trên cùng 1 SKU.
+@Entity
+@Table(name = "product_stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_shard_product_no", columnNames = {"product_id", "shard_no"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "shard_id")
+    private Long shardId;
+
+    @Column(name = "product_id", length = 50, nullable = false)
+    private String productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    // Số lượng bán ra chưa cộng vào products.sold_count (rebalance gom lại)
+    @Column(name = "sold_delta", nullable = false)
+    private long soldDelta;
+
+    @Column(name = "last_sold_at")
+    private LocalDateTime lastSoldAt;
+}
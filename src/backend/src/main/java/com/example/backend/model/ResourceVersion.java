@@ -0,0 +1,27 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Phiên bản của từng danh sách công khai có ETag (1 dòng / ResourceVersions.Resource).
+// Lưu trong DB để mọi instance sau load balancer trả cùng ETag và ETag không đổi sau khi restart.
+@Entity
+@Table(name = "resource_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+
+    @Id
+    @Column(name = "resource", length = 30)
+    private String resource;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Thời điểm đổi gần nhất (epoch millis), dùng cho Last-Modified
+    @Column(name = "modified_at_ms", nullable = false)
+    private long modifiedAtMs;
+}
@@ -7,7 +7,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // Phân trang keyset theo sản phẩm: mới nhất / theo số sao
+        @Index(name = "idx_reviews_product_created", columnList = "product_id, created_at, review_id"),
+        @Index(name = "idx_reviews_product_rating", columnList = "product_id, rating, created_at, review_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,22 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Histogram số đơn hàng theo giờ trong ngày (24 dòng, 0-23h)
+@Entity
+@Table(name = "sales_hour_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesHourStat {
+
+    @Id
+    @Column(name = "hour_of_day")
+    private Integer hourOfDay;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+}
@@ -1,9 +1,11 @@
 package com.example.backend.model;
 
+import com.example.backend.component.ResourceVersionEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(ResourceVersionEntityListener.class)
 @Table(name = "slide_shows")
 @Data // Lombok getter/setter
 @NoArgsConstructor
@@ -2,6 +2,20 @@ package com.example.backend.repository;
 
 import com.example.backend.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CategoryRepository extends JpaRepository<Category, String> {
+
+    @Modifying
+    @Query("UPDATE Category c SET c.soldCount = c.soldCount + :delta WHERE c.categoryId = :categoryId")
+    int addSoldCount(@Param("categoryId") String categoryId, @Param("delta") long delta);
+
+    // Tính lại từ sold_count của sản phẩm
+    @Modifying
+    @Query(value = "UPDATE categories c SET c.sold_count = (" +
+            "    SELECT COALESCE(SUM(p.sold_count), 0) FROM products p WHERE p.category_id = c.category_id" +
+            ")", nativeQuery = true)
+    int rebuildSoldCounts();
 }
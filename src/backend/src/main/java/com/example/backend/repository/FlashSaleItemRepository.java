@@ -3,8 +3,11 @@ package com.example.backend.repository;
 import com.example.backend.model.FlashSale;
 import com.example.backend.model.FlashSaleItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,13 @@ public interface FlashSaleItemRepository extends JpaRepository<FlashSaleItem, In
     // Tìm item cụ thể để check kho khi đặt hàng
     Optional<FlashSaleItem> findByFlashSale_FlashSaleIdAndProduct_ProductId(Integer flashSaleId, String productId);
     Optional<FlashSaleItem> findByFlashSaleAndProduct_ProductId(FlashSale flashSale, String productId);
-}
\ No newline at end of file
+
+    // Hoàn suất cho cả đơn khi hủy
+    @Query("SELECT i FROM FlashSaleItem i JOIN FETCH i.product p WHERE i.flashSale.flashSaleId = :flashSaleId AND p.productId IN :productIds")
+    List<FlashSaleItem> findWithProductByFlashSaleIdAndProductIds(@Param("flashSaleId") Integer flashSaleId,
+                                                                  @Param("productIds") Collection<String> productIds);
+
+    // Lấy item kèm Product trong 1 query (tránh lazy load từng item)
+    @Query("SELECT i FROM FlashSaleItem i JOIN FETCH i.product WHERE i.flashSale.flashSaleId = :flashSaleId")
+    List<FlashSaleItem> findWithProductByFlashSaleId(@Param("flashSaleId") Integer flashSaleId);
+}
@@ -2,10 +2,14 @@ package com.example.backend.repository;
 
 import com.example.backend.model.FlashSale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +18,14 @@ public interface FlashSaleRepository extends JpaRepository<FlashSale, Integer> {
     // Tìm Flash Sale đang diễn ra (Active và trong khung giờ)
     @Query("SELECT f FROM FlashSale f WHERE f.status = 'Active' AND f.startDate <= :now AND f.endDate >= :now")
     Optional<FlashSale> findCurrentActiveFlashSale(LocalDateTime now);
-}
\ No newline at end of file
+
+    // Các đợt chưa kết thúc (cần lập lịch chuyển trạng thái)
+    List<FlashSale> findByStatusNot(FlashSale.Status status);
+
+    // Chỉ ghi khi trạng thái thực sự thay đổi; không đụng tới đợt đã Finished
+    @Modifying
+    @Transactional
+    @Query("UPDATE FlashSale f SET f.status = :status " +
+            "WHERE f.flashSaleId = :id AND f.status <> :status AND f.status <> 'Finished'")
+    int updateStatusIfChanged(@Param("id") Integer id, @Param("status") FlashSale.Status status);
+}
@@ -1,16 +1,22 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.OrderDetail;
+import com.example.backend.repository.projection.OrderLineProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import org.springframework.data.domain.Pageable;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, String> {
 
+    @Override
+    @EntityGraph(attributePaths = "product")
+    List<OrderDetail> findAll();
+
+    @EntityGraph(attributePaths = "product")
     List<OrderDetail> findByOrderOrderId(String orderId);
 
     @Query("SELECT od FROM OrderDetail od " +
@@ -19,29 +25,25 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, String
             "WHERE o.userId = :userId")
     List<OrderDetail> findByUserIdWithOrderAndProduct(@Param("userId") String userId);
 
+    // Giỏ hàng: người gọi trả về đơn chứa dòng này nên lấy kèm order
     @Query("SELECT od FROM OrderDetail od " +
-            "JOIN od.order o " +
+            "JOIN FETCH od.order o " +
             "WHERE o.userId = :userId " +
             "AND od.product.productId = :productId " +
             "AND o.isOrder = false")
     Optional<OrderDetail> findExistingCartItem(@Param("userId") String userId,
                                                @Param("productId") String productId);
 
-    @Query("SELECT p.category.categoryName, SUM(od.quantity) " +
-            "FROM OrderDetail od " +
-            "JOIN od.product p " +
-            "JOIN od.order o " +
-            "WHERE o.isOrder = true " +
-            "GROUP BY p.category.categoryName " +
-            "ORDER BY SUM(od.quantity) DESC")
-    List<Object[]> findTopSellingCategories(Pageable pageable);
-
-    @Query("SELECT p.productName, p.imageUrl, p.price, SUM(od.quantity) " +
-            "FROM OrderDetail od " +
-            "JOIN od.product p " +
-            "JOIN od.order o " +
-            "WHERE o.isOrder = true " +
-            "GROUP BY p.productName, p.imageUrl, p.price " +
-            "ORDER BY SUM(od.quantity) DESC")
-    List<Object[]> findTopSellingProducts(Pageable pageable);
+    // Các dòng của đơn thật chưa hủy, gom theo đơn (dựng mô hình gợi ý sản phẩm)
+    @Query(value = "SELECT od.order_id AS orderId, o.user_id AS userId, od.product_id AS productId, od.quantity AS quantity " +
+            "FROM order_details od JOIN orders o ON o.order_id = od.order_id " +
+            "WHERE o.is_order = true AND o.order_status <> 'Cancelled' " +
+            "ORDER BY od.order_id", nativeQuery = true)
+    List<OrderLineProjection> findPurchaseLines();
+
+    // Lịch sử mua của 1 người dùng (gợi ý cá nhân), không tải entity Order/Product
+    @Query(value = "SELECT od.order_id AS orderId, o.user_id AS userId, od.product_id AS productId, od.quantity AS quantity " +
+            "FROM order_details od JOIN orders o ON o.order_id = od.order_id " +
+            "WHERE o.user_id = :userId AND o.is_order = true AND o.order_status <> 'Cancelled'", nativeQuery = true)
+    List<OrderLineProjection> findPurchaseLinesByUserId(@Param("userId") String userId);
 }
@@ -1,32 +1,73 @@
 package com.example.backend.repository;
 
+import com.example.backend.DTO.NameValueDTO;
 import com.example.backend.model.Order;
+import com.example.backend.repository.projection.DashboardOverviewProjection;
 import com.example.backend.repository.projection.RevenueComparisonProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.time.LocalDateTime;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
+	// Trang quản lý đơn (admin)
+	@EntityGraph(Order.WITH_LINES_AND_PAYMENT)
 	List<Order> findByIsOrderTrue();
 
+	// Lịch sử đơn của người dùng
+	@EntityGraph(Order.WITH_LINES_AND_PAYMENT)
 	List<Order> findByUserId(String userId);
 
+	// Giỏ hàng (đơn nháp)
+	@EntityGraph(Order.WITH_LINES_AND_PAYMENT)
 	List<Order> findByUserIdAndIsOrderFalse(String userId);
 
+	// Xem chi tiết 1 đơn
+	@EntityGraph(Order.WITH_LINES_AND_PAYMENT)
+	Optional<Order> findDetailedByOrderId(String orderId);
+
+	// Hủy đơn (hoàn kho từng dòng) và email hóa đơn
+	@EntityGraph(Order.WITH_LINES)
+	Optional<Order> findWithLinesByOrderId(String orderId);
+
 	Integer countByUserIdAndIsOrderFalse(String userId);
 
 	long countByIsOrderTrue();
 	long countByIsOrderTrueAndOrderDateBefore(LocalDateTime date);
 
-	@Query("SELECT o.orderStatus, COUNT(o) FROM Order o " +
+	// Gom toàn bộ KPI tổng quan vào 1 câu query (1 round-trip thay vì 7)
+	@Query(value = "SELECT " +
+			"   (SELECT COUNT(*) FROM users) as totalUsers, " +
+			"   (SELECT COUNT(*) FROM users u WHERE u.created_at < :sevenDaysAgo) as usersLastWeek, " +
+			"   (SELECT COUNT(*) FROM orders o WHERE o.is_order = true) as totalOrders, " +
+			"   (SELECT COUNT(*) FROM orders o WHERE o.is_order = true AND o.order_date < :sevenDaysAgo) as ordersLastWeek, " +
+			"   (SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o " +
+			"       JOIN payments p ON p.order_id = o.order_id " +
+			"       WHERE o.is_order = true AND p.payment_status = 'Completed' " +
+			"       AND o.order_date BETWEEN :startOfThisMonth AND :endOfThisMonth) as revenueThisMonth, " +
+			"   (SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o " +
+			"       JOIN payments p ON p.order_id = o.order_id " +
+			"       WHERE o.is_order = true AND p.payment_status = 'Completed' " +
+			"       AND o.order_date BETWEEN :startOfLastMonth AND :endOfLastMonth) as revenueLastMonth, " +
+			"   (SELECT COALESCE(SUM(pr.quantity), 0) FROM products pr WHERE pr.stock_sharded = FALSE) + " +
+			"   (SELECT COALESCE(SUM(ss.quantity), 0) FROM product_stock_shards ss " +
+			"      JOIN products pr ON pr.product_id = ss.product_id WHERE pr.stock_sharded = TRUE) as totalStock", nativeQuery = true)
+	DashboardOverviewProjection getDashboardOverview(@Param("sevenDaysAgo") LocalDateTime sevenDaysAgo,
+													 @Param("startOfThisMonth") LocalDateTime startOfThisMonth,
+													 @Param("endOfThisMonth") LocalDateTime endOfThisMonth,
+													 @Param("startOfLastMonth") LocalDateTime startOfLastMonth,
+													 @Param("endOfLastMonth") LocalDateTime endOfLastMonth);
+
+	@Query("SELECT new com.example.backend.DTO.NameValueDTO(o.orderStatus, COUNT(o)) FROM Order o " +
 			"WHERE o.isOrder = true " +
 			"AND o.orderDate BETWEEN :startDate AND :endDate " +
 			"GROUP BY o.orderStatus")
-	List<Object[]> countOrdersByStatus(@Param("startDate") LocalDateTime startDate,
+	List<NameValueDTO> countOrdersByStatus(@Param("startDate") LocalDateTime startDate,
 									   @Param("endDate") LocalDateTime endDate);
 
 	@Query("SELECT SUM(o.totalAmount) " +
@@ -79,9 +120,11 @@ public interface OrderRepository extends JpaRepository<Order, String> {
 										@Param("endDate") LocalDateTime endDate);
 
 	// Lấy số lượng đơn hàng theo từng khung giờ trong ngày (0-23h)
+	// Chỉ dùng để dựng lại bảng sales_hour_stats
 	@Query("SELECT HOUR(o.orderDate) as hour, COUNT(o) as count " +
 			"FROM Order o " +
 			"WHERE o.isOrder = true " +
+			"AND o.orderStatus <> 'Cancelled' " +
 			"GROUP BY HOUR(o.orderDate) " +
 			"ORDER BY HOUR(o.orderDate) ASC")
 	List<Object[]> findOrdersByHour();
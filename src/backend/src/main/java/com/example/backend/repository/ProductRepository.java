@@ -1,39 +1,155 @@
 package com.example.backend.repository;
 
+import com.example.backend.DTO.LowStockProductDTO;
+import com.example.backend.DTO.StagnantProductDTO;
+import com.example.backend.DTO.TopProductDTO;
 import com.example.backend.model.Product;
+import com.example.backend.repository.projection.ProductPriceProjection;
+import com.example.backend.repository.projection.StockAgingProjection;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String> {
 	List<Product> findByCategoryId(String categoryId);
 
+	// Danh mục tải lười; chỉ API trả sản phẩm cho client mới cần lấy kèm
+	@EntityGraph(attributePaths = "category")
+	@Query("SELECT p FROM Product p")
+	List<Product> findAllWithCategory();
+
+	@EntityGraph(attributePaths = "category")
+	Optional<Product> findWithCategoryByProductId(String productId);
+
 	@Query("SELECT p FROM Product p WHERE p.categoryId = :categoryId AND p.productId <> :productId")
-	List<Product> findRelatedProducts(@Param("categoryId") String categoryId, @Param("productId") String productId);
+	List<Product> findRelatedProducts(@Param("categoryId") String categoryId, @Param("productId") String productId,
+									  Pageable pageable);
 
-	@Query("SELECT SUM(p.quantity) FROM Product p")
+	// Sản phẩm chia shard: cộng trực tiếp từ shard (products.quantity chỉ được đồng bộ định kỳ)
+	@Query(value = "SELECT " +
+			"(SELECT COALESCE(SUM(p.quantity), 0) FROM products p WHERE p.stock_sharded = FALSE) + " +
+			"(SELECT COALESCE(SUM(s.quantity), 0) FROM product_stock_shards s " +
+			"   JOIN products p ON p.product_id = s.product_id WHERE p.stock_sharded = TRUE)", nativeQuery = true)
 	Long sumTotalStock();
 
-	@Query("SELECT p.productName, p.quantity FROM Product p " +
+	@Query("SELECT new com.example.backend.DTO.LowStockProductDTO(p.productName, p.quantity) FROM Product p " +
 			"WHERE p.quantity < 10 " +
 			"ORDER BY p.quantity ASC")
-	List<Object[]> findLowStockProducts(Pageable pageable);
+	List<LowStockProductDTO> findLowStockProducts(Pageable pageable);
 
-	@Query("SELECT p.productName, p.quantity, p.imageUrl FROM Product p " +
-			"WHERE p.productId NOT IN (" +
-			"    SELECT od.product.productId FROM OrderDetail od " +
-			"    JOIN od.order o " +
-			"    WHERE o.orderDate >= :startDate" +
-			") " +
+	// Dùng cột last_sold_at (có index) thay cho NOT IN trên toàn bộ order_details
+	@Query("SELECT new com.example.backend.DTO.StagnantProductDTO(p.productName, p.quantity, p.imageUrl) FROM Product p " +
+			"WHERE p.lastSoldAt IS NULL OR p.lastSoldAt < :startDate " +
 			"ORDER BY p.quantity DESC")
-	List<Object[]> findStagnantProducts(@Param("startDate") LocalDateTime startDate, Pageable pageable);
+	List<StagnantProductDTO> findStagnantProducts(@Param("startDate") LocalDateTime startDate, Pageable pageable);
+
+	// Phân nhóm hàng tồn theo thời gian kể từ lần bán gần nhất
+	@Query(value = "SELECT " +
+			"   CASE " +
+			"       WHEN p.last_sold_at IS NULL THEN 'NEVER' " +
+			"       WHEN p.last_sold_at >= :days30 THEN 'DAYS_0_30' " +
+			"       WHEN p.last_sold_at >= :days90 THEN 'DAYS_31_90' " +
+			"       WHEN p.last_sold_at >= :days180 THEN 'DAYS_91_180' " +
+			"       ELSE 'DAYS_OVER_180' " +
+			"   END as bucket, " +
+			"   COUNT(*) as productCount, " +
+			"   COALESCE(SUM(p.quantity), 0) as stockQuantity " +
+			"FROM products p " +
+			"WHERE p.quantity > 0 " +
+			"GROUP BY bucket", nativeQuery = true)
+	List<StockAgingProjection> findStockAging(@Param("days30") LocalDateTime days30,
+											  @Param("days90") LocalDateTime days90,
+											  @Param("days180") LocalDateTime days180);
+
+	// Backfill last_sold_at từ lịch sử đơn hàng (chỉ các dòng chưa có giá trị)
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE products p " +
+			"SET p.last_sold_at = (" +
+			"    SELECT MAX(o.order_date) FROM order_details od " +
+			"    JOIN orders o ON o.order_id = od.order_id " +
+			"    WHERE od.product_id = p.product_id AND o.is_order = true" +
+			") " +
+			"WHERE p.last_sold_at IS NULL", nativeQuery = true)
+	int backfillLastSoldAt();
+
+	// Đọc từ bộ đếm sold_count (có index), không GROUP BY order_details
+	@Query("SELECT new com.example.backend.DTO.TopProductDTO(p.productName, p.imageUrl, p.price, p.soldCount) FROM Product p " +
+			"WHERE p.soldCount > 0 " +
+			"ORDER BY p.soldCount DESC")
+	List<TopProductDTO> findTopSellingProducts(Pageable pageable);
+
+	// Tính lại sold_count từ lịch sử đơn hàng (bỏ qua đơn đã hủy)
+	@Modifying
+	@Query(value = "UPDATE products p SET p.sold_count = (" +
+			"    SELECT COALESCE(SUM(od.quantity), 0) FROM order_details od " +
+			"    JOIN orders o ON o.order_id = od.order_id " +
+			"    WHERE od.product_id = p.product_id AND o.is_order = true " +
+			"    AND o.order_status <> 'Cancelled'" +
+			")", nativeQuery = true)
+	int rebuildSoldCounts();
 
 	@Query(value = "SELECT * FROM products WHERE quantity > 0", nativeQuery = true)
 	List<Product> findProductsForChatbot();
+
+	// Bảng giá cho PricingService (chỉ 3 cột, không nạp cả entity)
+	@Query("SELECT p.productId AS productId, p.price AS price, p.discount AS discount FROM Product p")
+	List<ProductPriceProjection> findAllPrices();
+
+	@Query("SELECT p.productId AS productId, p.price AS price, p.discount AS discount FROM Product p WHERE p.productId = :productId")
+	Optional<ProductPriceProjection> findPriceById(@Param("productId") String productId);
+
+	// Khóa dòng sản phẩm khi bật/tắt/đồng bộ shard tồn kho
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT p FROM Product p WHERE p.productId = :productId")
+	Optional<Product> findByIdForUpdate(@Param("productId") String productId);
+
+	// Cộng/trừ 1 review (delta = +1 / -1) vào tổng hợp đánh giá của sản phẩm, nguyên tử trên 1 dòng
+	@Modifying
+	@Query(value = "UPDATE products SET " +
+			"rating_count = rating_count + :delta, " +
+			"rating_sum = rating_sum + :star * :delta, " +
+			"rating_1 = rating_1 + IF(:star = 1, :delta, 0), " +
+			"rating_2 = rating_2 + IF(:star = 2, :delta, 0), " +
+			"rating_3 = rating_3 + IF(:star = 3, :delta, 0), " +
+			"rating_4 = rating_4 + IF(:star = 4, :delta, 0), " +
+			"rating_5 = rating_5 + IF(:star = 5, :delta, 0) " +
+			"WHERE product_id = :productId", nativeQuery = true)
+	int adjustRating(@Param("productId") String productId, @Param("star") int star, @Param("delta") int delta);
+
+	// Mốc cuối của 1 lô đối soát: product_id thứ :batchSize sau :afterId (null khi đã hết)
+	@Query(value = "SELECT MAX(product_id) FROM (SELECT product_id FROM products WHERE product_id > :afterId " +
+			"ORDER BY product_id LIMIT :batchSize) b", nativeQuery = true)
+	String findRatingBatchEnd(@Param("afterId") String afterId, @Param("batchSize") int batchSize);
+
+	// Đối soát tổng hợp đánh giá với bảng reviews trong khoảng (afterId, lastId], chỉ ghi các sản phẩm bị lệch.
+	// Mỗi lô 1 transaction ngắn: chỉ khóa các dòng products trong khoảng đó.
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE products p LEFT JOIN (" +
+			"    SELECT product_id, COUNT(*) AS c, SUM(rating) AS s, " +
+			"           SUM(rating = 1) AS r1, SUM(rating = 2) AS r2, SUM(rating = 3) AS r3, " +
+			"           SUM(rating = 4) AS r4, SUM(rating = 5) AS r5 " +
+			"    FROM reviews WHERE product_id > :afterId AND product_id <= :lastId GROUP BY product_id" +
+			") r ON r.product_id = p.product_id " +
+			"SET p.rating_count = COALESCE(r.c, 0), p.rating_sum = COALESCE(r.s, 0), " +
+			"    p.rating_1 = COALESCE(r.r1, 0), p.rating_2 = COALESCE(r.r2, 0), p.rating_3 = COALESCE(r.r3, 0), " +
+			"    p.rating_4 = COALESCE(r.r4, 0), p.rating_5 = COALESCE(r.r5, 0) " +
+			"WHERE p.product_id > :afterId AND p.product_id <= :lastId AND (" +
+			"   p.rating_count <> COALESCE(r.c, 0) OR p.rating_sum <> COALESCE(r.s, 0) " +
+			"   OR p.rating_1 <> COALESCE(r.r1, 0) OR p.rating_2 <> COALESCE(r.r2, 0) OR p.rating_3 <> COALESCE(r.r3, 0) " +
+			"   OR p.rating_4 <> COALESCE(r.r4, 0) OR p.rating_5 <> COALESCE(r.r5, 0))", nativeQuery = true)
+	int reconcileRatings(@Param("afterId") String afterId, @Param("lastId") String lastId);
 }
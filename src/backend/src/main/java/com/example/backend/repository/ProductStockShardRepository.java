@@ -0,0 +1,54 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ProductStockShard;
+import com.example.backend.repository.projection.ShardSummaryProjection;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+
+    List<ProductStockShard> findByProductIdOrderByShardNo(String productId);
+
+    // Rebalance: khóa toàn bộ shard của sản phẩm trong thời gian ngắn
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockShard s WHERE s.productId = :productId ORDER BY s.shardNo")
+    List<ProductStockShard> findForUpdate(@Param("productId") String productId);
+
+    // Trừ có điều kiện trên đúng 1 shard: trả về 0 nếu shard không đủ hàng
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.quantity = s.quantity - :quantity, s.soldDelta = s.soldDelta + :quantity, " +
+            "s.lastSoldAt = :now WHERE s.productId = :productId AND s.shardNo = :shardNo AND s.quantity >= :quantity")
+    int tryDeduct(@Param("productId") String productId, @Param("shardNo") int shardNo,
+                  @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.quantity = s.quantity + :quantity, s.soldDelta = s.soldDelta - :quantity " +
+            "WHERE s.productId = :productId AND s.shardNo = :shardNo")
+    int restore(@Param("productId") String productId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStockShard s WHERE s.productId = :productId")
+    long sumQuantity(@Param("productId") String productId);
+
+    // Đọc không khóa để rebalance biết có gì cần gom hay không trước khi khóa dòng products
+    @Query("SELECT p.quantity AS productQuantity, COALESCE(SUM(s.quantity), 0) AS totalQuantity, " +
+            "COALESCE(SUM(s.soldDelta), 0) AS totalSoldDelta, MIN(s.quantity) AS minQuantity, MAX(s.quantity) AS maxQuantity " +
+            "FROM ProductStockShard s, Product p WHERE p.productId = s.productId AND s.productId = :productId " +
+            "GROUP BY p.quantity")
+    Optional<ShardSummaryProjection> summarize(@Param("productId") String productId);
+
+    @Query("SELECT DISTINCT s.productId FROM ProductStockShard s")
+    List<String> findShardedProductIds();
+
+    @Modifying
+    void deleteByProductId(String productId);
+}
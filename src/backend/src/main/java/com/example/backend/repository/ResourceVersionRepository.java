@@ -0,0 +1,27 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ResourceVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ResourceVersionRepository extends JpaRepository<ResourceVersion, String> {
+
+    // Gọi sau khi transaction ghi dữ liệu đã commit: transaction riêng, chỉ giữ khóa dòng trong 1 câu UPDATE
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ResourceVersion v SET v.version = v.version + 1, v.modifiedAtMs = :now WHERE v.resource = :resource")
+    int increment(@Param("resource") String resource, @Param("now") long now);
+
+    // Tạo dòng nếu chưa có; nhiều instance cùng khởi động chạy song song vẫn an toàn (không lỗi trùng khóa)
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT IGNORE INTO resource_versions (resource, version, modified_at_ms) VALUES (:resource, 0, :now)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("resource") String resource, @Param("now") long now);
+}
@@ -1,16 +1,87 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Review;
+import com.example.backend.repository.projection.ReviewListProjection;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
+
+    String LIST_COLUMNS = "SELECT r.review_id AS reviewId, r.user_id AS userId, u.full_name AS userName, " +
+            "r.product_id AS productId, r.rating AS rating, r.comment AS comment, r.created_at AS createdAt " +
+            "FROM reviews r JOIN users u ON u.user_id = r.user_id ";
+
     // Tìm review theo sản phẩm để hiển thị chi tiết sản phẩm
     List<Review> findByProduct_ProductId(String productId);
 
     // Tìm review theo user (lịch sử đánh giá)
     List<Review> findByUser_UserId(String userId);
-}
\ No newline at end of file
+
+    // Toàn bộ đánh giá của 1 sản phẩm, kèm tên người dùng trong cùng 1 câu query
+    @Query(value = LIST_COLUMNS + "WHERE r.product_id = :productId ORDER BY r.created_at DESC, r.review_id DESC",
+            nativeQuery = true)
+    List<ReviewListProjection> findListByProductId(@Param("productId") String productId);
+
+    @Query(value = LIST_COLUMNS + "ORDER BY r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    List<ReviewListProjection> findAllList();
+
+    // --- Phân trang keyset: điều kiện "sau con trỏ" đi theo đúng thứ tự ORDER BY, dùng index (product_id, ...) ---
+
+    // Mới nhất
+    @Query(value = LIST_COLUMNS + "WHERE r.product_id = :productId " +
+            "AND (r.created_at < :createdAt OR (r.created_at = :createdAt AND r.review_id < :reviewId)) " +
+            "ORDER BY r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    List<ReviewListProjection> findPageNewest(@Param("productId") String productId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("reviewId") Integer reviewId,
+                                              Pageable pageable);
+
+    // Mới nhất, chỉ đánh giá có nội dung
+    @Query(value = LIST_COLUMNS + "WHERE r.product_id = :productId AND r.comment IS NOT NULL AND r.comment <> '' " +
+            "AND (r.created_at < :createdAt OR (r.created_at = :createdAt AND r.review_id < :reviewId)) " +
+            "ORDER BY r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    List<ReviewListProjection> findPageWithComment(@Param("productId") String productId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("reviewId") Integer reviewId,
+                                                   Pageable pageable);
+
+    // Sao cao trước, cùng số sao thì mới trước
+    @Query(value = LIST_COLUMNS + "WHERE r.product_id = :productId " +
+            "AND (r.rating < :rating OR (r.rating = :rating AND (r.created_at < :createdAt " +
+            "     OR (r.created_at = :createdAt AND r.review_id < :reviewId)))) " +
+            "ORDER BY r.rating DESC, r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    List<ReviewListProjection> findPageHighest(@Param("productId") String productId,
+                                               @Param("rating") Integer rating,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("reviewId") Integer reviewId,
+                                               Pageable pageable);
+
+    // Sao thấp trước, cùng số sao thì mới trước
+    @Query(value = LIST_COLUMNS + "WHERE r.product_id = :productId " +
+            "AND (r.rating > :rating OR (r.rating = :rating AND (r.created_at < :createdAt " +
+            "     OR (r.created_at = :createdAt AND r.review_id < :reviewId)))) " +
+            "ORDER BY r.rating ASC, r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    List<ReviewListProjection> findPageLowest(@Param("productId") String productId,
+                                              @Param("rating") Integer rating,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("reviewId") Integer reviewId,
+                                              Pageable pageable);
+
+    // Trang kiểm duyệt của admin: đọc dần từng dòng (fetch size MIN_VALUE = MySQL streaming),
+    // phải tiêu thụ trong transaction và đóng stream sau khi dùng
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(value = LIST_COLUMNS + "ORDER BY r.created_at DESC, r.review_id DESC", nativeQuery = true)
+    Stream<ReviewListProjection> streamAllList();
+}
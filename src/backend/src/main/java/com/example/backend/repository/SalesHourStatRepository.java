@@ -0,0 +1,16 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.SalesHourStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SalesHourStatRepository extends JpaRepository<SalesHourStat, Integer> {
+
+    @Modifying
+    @Query("UPDATE SalesHourStat s SET s.orderCount = s.orderCount + :delta WHERE s.hourOfDay = :hour")
+    int addOrderCount(@Param("hour") int hour, @Param("delta") long delta);
+}
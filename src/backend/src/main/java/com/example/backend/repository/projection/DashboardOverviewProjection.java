@@ -0,0 +1,13 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface DashboardOverviewProjection {
+    Long getTotalUsers();           // Tổng user hiện tại
+    Long getUsersLastWeek();        // Tổng user tính đến 7 ngày trước
+    Long getTotalOrders();          // Tổng đơn hàng thật (is_order = true)
+    Long getOrdersLastWeek();       // Tổng đơn tính đến 7 ngày trước
+    BigDecimal getRevenueThisMonth();
+    BigDecimal getRevenueLastMonth();
+    Long getTotalStock();           // Tổng tồn kho
+}
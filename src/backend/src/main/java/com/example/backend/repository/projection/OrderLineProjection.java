@@ -0,0 +1,8 @@
+package com.example.backend.repository.projection;
+
+public interface OrderLineProjection {
+    String getOrderId();
+    String getUserId();
+    String getProductId();
+    Integer getQuantity();
+}
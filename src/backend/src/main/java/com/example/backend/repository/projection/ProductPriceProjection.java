@@ -0,0 +1,9 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ProductPriceProjection {
+    String getProductId();
+    BigDecimal getPrice();
+    BigDecimal getDiscount();   // % giảm giá, có thể null
+}
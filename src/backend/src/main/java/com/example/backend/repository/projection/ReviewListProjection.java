@@ -0,0 +1,13 @@
+package com.example.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface ReviewListProjection {
+    Integer getReviewId();
+    String getUserId();
+    String getUserName();       // users.full_name, lấy cùng câu query thay vì tải entity User
+    String getProductId();
+    Integer getRating();
+    String getComment();
+    LocalDateTime getCreatedAt();
+}
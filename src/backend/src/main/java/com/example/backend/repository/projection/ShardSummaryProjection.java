@@ -0,0 +1,9 @@
+package com.example.backend.repository.projection;
+
+public interface ShardSummaryProjection {
+    Integer getProductQuantity();   // products.quantity đã đồng bộ lần trước
+    Long getTotalQuantity();        // Tổng tồn kho trên các shard
+    Long getTotalSoldDelta();       // Số bán chưa gom về products.sold_count
+    Integer getMinQuantity();
+    Integer getMaxQuantity();
+}
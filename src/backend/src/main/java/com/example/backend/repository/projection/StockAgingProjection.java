@@ -0,0 +1,7 @@
+package com.example.backend.repository.projection;
+
+public interface StockAgingProjection {
+    String getBucket();         // NEVER, DAYS_0_30, DAYS_31_90, DAYS_91_180, DAYS_OVER_180
+    Long getProductCount();     // Số sản phẩm còn hàng trong nhóm
+    Long getStockQuantity();    // Tổng tồn kho của nhóm
+}
@@ -1,29 +1,44 @@
 package com.example.backend.service;
 
+import com.example.backend.DTO.DashboardBundleDTO;
+import com.example.backend.DTO.DashboardOverviewDTO;
+import com.example.backend.DTO.LowStockProductDTO;
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.PeakHourDTO;
+import com.example.backend.DTO.RevenueComparisonDTO;
+import com.example.backend.DTO.RevenuePointDTO;
+import com.example.backend.DTO.StagnantProductDTO;
+import com.example.backend.DTO.StockAgingDTO;
+import com.example.backend.DTO.TopCustomerDTO;
+import com.example.backend.DTO.TopProductDTO;
+
 import java.time.LocalDateTime;
-import java.util.Map;
 import java.util.List;
 
 public interface AdminDashboardService {
 
     //Lay tong quan
-    Map<String, Object> getDashboardOverview();
+    DashboardOverviewDTO getDashboardOverview();
 
     //Top
-    List<Map<String, Object>> getOrderStatusStats(LocalDateTime startDate, LocalDateTime endDate);
-    List<Map<String, Object>> getTopSellingCategories();
-    List<Map<String, Object>> getTopSellingProducts();
+    List<NameValueDTO> getOrderStatusStats(LocalDateTime startDate, LocalDateTime endDate);
+    List<NameValueDTO> getTopSellingCategories();
+    List<TopProductDTO> getTopSellingProducts();
 
     //Uoc tinh doanh thu vs thuc te
-    List<Map<String, Object>> getRevenueComparison();
+    List<RevenueComparisonDTO> getRevenueComparison();
 
     //Khach hang tiem nang
-    List<Map<String, Object>> getTopCustomers();
+    List<TopCustomerDTO> getTopCustomers();
+
+    List<RevenuePointDTO> getRevenueStatistics(String timeRange);
+    List<RevenuePointDTO> getRevenueStatisticsByDateRange(String fromDate, String toDate);
 
-    List<Map<String, Object>> getRevenueStatistics(String timeRange);
-    List<Map<String, Object>> getRevenueStatisticsByDateRange(String fromDate, String toDate);
+    List<PeakHourDTO> getPeakHoursStats();
+    List<LowStockProductDTO> getLowStockProducts();
+    List<StagnantProductDTO> getStagnantProducts();
+    List<StockAgingDTO> getStockAging();
 
-    List<Map<String, Object>> getPeakHoursStats();
-    List<Map<String, Object>> getLowStockProducts();
-    List<Map<String, Object>> getStagnantProducts();
-}
\ No newline at end of file
+    //Gom tat ca section, chay song song
+    DashboardBundleDTO getDashboardBundle(LocalDateTime statusStartDate, LocalDateTime statusEndDate, String revenueRange);
+}
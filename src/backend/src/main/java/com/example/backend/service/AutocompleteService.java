@@ -0,0 +1,17 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.AutocompleteSuggestionDTO;
+
+import java.util.List;
+
+public interface AutocompleteService {
+
+    // Gợi ý theo tiền tố (không phân biệt dấu), xếp theo độ bán chạy
+    List<AutocompleteSuggestionDTO> suggest(String prefix, int limit);
+
+    // Ghi nhận từ khóa người dùng đã tìm (có kết quả) để gợi ý lại về sau
+    void recordQuery(String query);
+
+    void rebuild();
+    void reindexProduct(String productId);
+}
@@ -0,0 +1,10 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.CatalogPageDTO;
+import com.example.backend.DTO.CatalogQuery;
+
+public interface CatalogQueryService {
+    CatalogPageDTO query(CatalogQuery query);
+    void rebuild();
+    void reindexProduct(String productId);
+}
@@ -0,0 +1,10 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.FlashSaleAdmissionDTO;
+
+import java.util.Map;
+
+public interface FlashSaleAdmissionService {
+    // flashQuantities: productId -> số lượng mua theo giá Flash Sale; rỗng thì luôn cho qua
+    FlashSaleAdmissionDTO admit(String userId, Map<String, Integer> flashQuantities, String ticket);
+}
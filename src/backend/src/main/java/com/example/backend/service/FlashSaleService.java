@@ -1,22 +1,29 @@
 package com.example.backend.service;
 
+import com.example.backend.DTO.FlashSaleAllocation;
 import com.example.backend.DTO.FlashSaleDTO;
 import com.example.backend.DTO.FlashSaleItemDTO;
+import com.example.backend.DTO.FlashSaleSnapshot;
 import com.example.backend.model.FlashSale;
 
 import java.util.List;
+import java.util.Map;
 
 public interface FlashSaleService {
     List<FlashSaleDTO> getAllFlashSales();
     FlashSaleDTO createFlashSale(FlashSaleDTO flashSaleDTO);
     FlashSaleDTO getFlashSaleById(Integer id);
     FlashSaleDTO getCurrentFlashSale(); // Lấy đợt sale đang chạy để hiển thị Home/ProductDetail
+    FlashSaleSnapshot getCurrentFlashSaleSnapshot(); // Payload dựng sẵn + ETag
+    FlashSaleSnapshot refreshCurrentFlashSale(); // Dựng lại snapshot khi đợt sale đổi trạng thái
     FlashSaleDTO addProductToFlashSale(Integer flashSaleId, FlashSaleItemDTO itemDTO);
     void updateFlashSaleStatus(); // Hàm cho Scheduler
+    void warmUpFlashSale(Integer flashSaleId); // Chuẩn bị dữ liệu ngay trước giờ mở bán
     void deleteFlashSale(Integer id);
     void updateStatus(Integer id, FlashSale.Status status);
     FlashSaleDTO updateFlashSale(Integer id, FlashSaleDTO dto);
 
-    void restoreFlashSaleQuantity(String productId, int quantity);
-    boolean deductFlashSaleQuantity(String productId, int quantity);
+    // Hoàn suất theo đợt sale đã lưu trên order_details (productId -> số lượng), 1 lượt cho cả đơn
+    void restoreFlashSaleQuantities(Integer flashSaleId, Map<String, Integer> quantities);
+    FlashSaleAllocation deductFlashSaleQuantity(String productId, int quantity);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.ProductStockDTO;
+
+import java.util.List;
+
+public interface InventoryShardService {
+    void deduct(String productId, int quantity);  // Trừ kho trên 1 shard ngẫu nhiên (gom nhiều shard nếu cần)
+    void restore(String productId, int quantity); // Hoàn kho khi hủy đơn
+    void enableSharding(String productId, int shardCount);
+    void disableSharding(String productId);
+    void setStock(String productId, int quantity); // Admin nhập lại tổng tồn kho
+    void rebalance(String productId);              // Chia đều lại + đồng bộ về bảng products
+    ProductStockDTO getStock(String productId);
+    List<String> getShardedProductIds();
+}
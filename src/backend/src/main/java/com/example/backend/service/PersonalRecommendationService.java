@@ -0,0 +1,9 @@
+package com.example.backend.service;
+
+import java.util.List;
+
+public interface PersonalRecommendationService {
+
+    // "Gợi ý cho bạn": productId xếp theo mức phù hợp; userId null / chưa mua gì -> danh sách bán chạy
+    List<String> recommendFor(String userId, int limit);
+}
@@ -0,0 +1,11 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.PriceQuote;
+import com.example.backend.model.Coupon;
+
+import java.util.List;
+
+public interface PricingService {
+    // Tính giá từng dòng + tổng đơn từ giá gốc, % giảm của sản phẩm, giá Flash Sale và mã giảm giá (có thể null)
+    PriceQuote quote(List<PriceQuote.Line> lines, Coupon coupon);
+}
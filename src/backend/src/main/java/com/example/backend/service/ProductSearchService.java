@@ -0,0 +1,11 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.ProductSearchHitDTO;
+
+import java.util.List;
+
+public interface ProductSearchService {
+    List<ProductSearchHitDTO> search(String query, int limit);
+    void rebuildIndex();
+    void reindexProduct(String productId); // Gọi khi sản phẩm được tạo/sửa/xóa
+}
@@ -13,5 +13,7 @@ public interface ProductService {
 
     List<Product> getProductsByCategoryId(String categoryId);
     List<Product> getRelatedProducts(String productId);
+    List<Product> getFrequentlyBoughtTogether(String productId);
+    List<Product> getRecommendedForUser(String userId, int limit);
 
 }
@@ -0,0 +1,20 @@
+package com.example.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface RecommendationService {
+
+    // Đọc từ bảng top-K đã tính sẵn trong bộ nhớ
+    List<String> getRelatedProductIds(String productId, int limit);
+    List<String> getBoughtTogetherProductIds(String productId, int limit);
+
+    // Sản phẩm lân cận (mua cùng + tương tự) kèm điểm, dùng để sinh ứng viên gợi ý cá nhân
+    Map<String, Double> getNeighbourScores(String productId);
+
+    // Danh sách bán chạy tính sẵn, dùng khi người dùng chưa có lịch sử mua
+    List<String> getPopularProductIds(int limit);
+
+    // Dựng lại toàn bộ mô hình từ lịch sử đơn hàng
+    void rebuild();
+}
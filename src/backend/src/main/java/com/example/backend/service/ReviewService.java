@@ -1,11 +1,19 @@
 package com.example.backend.service;
 
 import com.example.backend.DTO.ReviewDTO;
+import com.example.backend.DTO.ReviewPageDTO;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ReviewService {
     List<ReviewDTO> getAllReviews();
     List<ReviewDTO> getReviewsByProductId(String productId);
+
+    // Phân trang keyset: sort = newest | highest | lowest | with-comment, cursor lấy từ trang trước (null = trang đầu)
+    ReviewPageDTO getReviewPage(String productId, String sort, String cursor, int limit);
+
+    // Duyệt toàn bộ đánh giá cho trang kiểm duyệt mà không giữ cả danh sách trong bộ nhớ
+    void streamAllReviews(Consumer<ReviewDTO> consumer);
     ReviewDTO createReview(ReviewDTO reviewDTO);
     ReviewDTO updateReview(Integer reviewId, ReviewDTO reviewDTO);
     void deleteReview(Integer reviewId);
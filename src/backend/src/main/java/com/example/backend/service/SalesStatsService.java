@@ -0,0 +1,23 @@
+package com.example.backend.service;
+
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.TopProductDTO;
+import com.example.backend.model.Order;
+
+import java.util.List;
+
+public interface SalesStatsService {
+
+    // Cập nhật bộ đếm khi đơn thật được tạo / bị hủy (gọi trong transaction của đơn hàng)
+    void recordOrderPlaced(Order order);
+    void recordOrderCancelled(Order order);
+
+    // Đọc từ snapshot trong bộ nhớ
+    List<TopProductDTO> getTopSellingProducts(int limit);
+    List<NameValueDTO> getTopSellingCategories(int limit);
+    long[] getOrdersByHour();
+
+    // Dựng lại toàn bộ bộ đếm từ lịch sử đơn hàng
+    void rebuildFromHistory();
+    boolean isInitialized();
+}
@@ -1,15 +1,33 @@
 package com.example.backend.service.impl;
 
-import com.example.backend.repository.OrderDetailRepository;
+import com.example.backend.DTO.DashboardBundleDTO;
+import com.example.backend.DTO.DashboardOverviewDTO;
+import com.example.backend.DTO.LowStockProductDTO;
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.PeakHourDTO;
+import com.example.backend.DTO.RevenueComparisonDTO;
+import com.example.backend.DTO.RevenuePointDTO;
+import com.example.backend.DTO.StagnantProductDTO;
+import com.example.backend.DTO.StockAgingDTO;
+import com.example.backend.DTO.TopCustomerDTO;
+import com.example.backend.DTO.TopProductDTO;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.ProductRepository;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.repository.projection.DashboardOverviewProjection;
 import com.example.backend.repository.projection.RevenueComparisonProjection;
+import com.example.backend.repository.projection.StockAgingProjection;
 import com.example.backend.service.AdminDashboardService;
+import com.example.backend.service.SalesStatsService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -19,45 +37,110 @@ import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 public class AdminDashboardServiceImpl implements AdminDashboardService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(AdminDashboardServiceImpl.class);
+
+    // Formatter dùng chung (thread-safe), tránh tạo mới mỗi lần gọi
+    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter CHART_LABEL_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Label cố định cho biểu đồ giờ cao điểm: "0h".."23h"
+    private static final String[] HOUR_LABELS = new String[24];
+    static {
+        for (int i = 0; i < 24; i++) HOUR_LABELS[i] = i + "h";
+    }
+
+    // Thứ tự + nhãn hiển thị của các nhóm tuổi tồn kho
+    private static final String[][] STOCK_AGING_BUCKETS = {
+            {"DAYS_0_30", "Bán trong 30 ngày"},
+            {"DAYS_31_90", "31 - 90 ngày"},
+            {"DAYS_91_180", "91 - 180 ngày"},
+            {"DAYS_OVER_180", "Trên 180 ngày"},
+            {"NEVER", "Chưa từng bán"}
+    };
 
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private OrderDetailRepository orderDetailRepository;
+    private ProductRepository productRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private SalesStatsService salesStatsService;
 
+    // Thời gian sống của snapshot KPI tổng quan (mặc định 30s)
+    @Value("${dashboard.overview.ttl-ms:30000}")
+    private long overviewTtlMs;
 
-    @Override
-    public Map<String, Object> getDashboardOverview() {
-        Map<String, Object> stats = new HashMap<>();
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private Executor dashboardExecutor;
+
+    // Thời gian tối đa chờ mỗi section của bundle (tính từ lúc bắt đầu gọi)
+    @Value("${dashboard.bundle.section-timeout-ms:3000}")
+    private long sectionTimeoutMs;
 
-        long totalUsersNow = userRepository.count();
-        long totalUsersLastWeek = userRepository.countByCreatedAtBefore(sevenDaysAgo);
-        double userGrowth = calculateGrowth(totalUsersNow, totalUsersLastWeek);
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Mỗi section chạy trong transaction chỉ đọc có timeout = hạn chờ của bundle.
+    // Spring áp thời gian còn lại của transaction vào từng query (Statement.setQueryTimeout), nên query quá hạn
+    // bị DB hủy và trả connection; cancel(true) phía bundle chỉ bỏ kết quả, không dừng được JDBC.
+    private TransactionTemplate sectionTransaction;
+
+    @PostConstruct
+    void initSectionTransaction() {
+        sectionTransaction = new TransactionTemplate(transactionManager);
+        sectionTransaction.setReadOnly(true);
+        sectionTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(sectionTimeoutMs + 999)));
+    }
 
-        stats.put("totalUsers", totalUsersNow);
-        stats.put("userGrowth", userGrowth);
+    private final Object overviewLock = new Object();
+    private volatile CachedOverview cachedOverview;
 
-        long totalOrdersNow = orderRepository.countByIsOrderTrue();
-        long totalOrdersLastWeek = orderRepository.countByIsOrderTrueAndOrderDateBefore(sevenDaysAgo);
-        double orderGrowth = calculateGrowth(totalOrdersNow, totalOrdersLastWeek);
+    private record CachedOverview(DashboardOverviewDTO value, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
 
-        stats.put("newOrders", totalOrdersNow);
-        stats.put("orderGrowth", orderGrowth);
+
+    @Override
+    public DashboardOverviewDTO getDashboardOverview() {
+        // Nhiều admin mở Dashboard cùng lúc sẽ dùng chung 1 snapshot trong khoảng TTL
+        CachedOverview cached = cachedOverview;
+        if (cached != null && !cached.isExpired()) {
+            return cached.value();
+        }
+
+        synchronized (overviewLock) {
+            cached = cachedOverview;
+            if (cached != null && !cached.isExpired()) {
+                return cached.value();
+            }
+            DashboardOverviewDTO fresh = loadDashboardOverview();
+            cachedOverview = new CachedOverview(fresh, System.currentTimeMillis() + overviewTtlMs);
+            return fresh;
+        }
+    }
+
+    private DashboardOverviewDTO loadDashboardOverview() {
+        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
 
         YearMonth currentMonth = YearMonth.now();
         LocalDateTime startOfThisMonth = currentMonth.atDay(1).atStartOfDay();
@@ -67,28 +150,28 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         LocalDateTime startOfLastMonth = lastMonth.atDay(1).atStartOfDay();
         LocalDateTime endOfLastMonth = lastMonth.atEndOfMonth().atTime(23, 59, 59);
 
-        BigDecimal revenueThisMonth = orderRepository.sumRevenueByDateRange(startOfThisMonth, endOfThisMonth);
-        BigDecimal revenueLastMonth = orderRepository.sumRevenueByDateRange(startOfLastMonth, endOfLastMonth);
-
-        revenueThisMonth = (revenueThisMonth == null) ? BigDecimal.ZERO : revenueThisMonth;
-        revenueLastMonth = (revenueLastMonth == null) ? BigDecimal.ZERO : revenueLastMonth;
-
-        double revenueGrowth = 0.0;
-        if (revenueLastMonth.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal diff = revenueThisMonth.subtract(revenueLastMonth);
-            revenueGrowth = diff.divide(revenueLastMonth, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-        } else if (revenueThisMonth.compareTo(BigDecimal.ZERO) > 0) {
-            revenueGrowth = 100.0;
-        }
-
-        stats.put("monthlyRevenue", revenueThisMonth);
-        stats.put("revenueGrowth", Math.round(revenueGrowth * 10.0) / 10.0);
-
-        Long totalStock = productRepository.sumTotalStock();
-        stats.put("totalStock", totalStock != null ? totalStock : 0L);
+        // 1 round-trip duy nhất cho tất cả KPI
+        DashboardOverviewProjection row = orderRepository.getDashboardOverview(
+                sevenDaysAgo, startOfThisMonth, endOfThisMonth, startOfLastMonth, endOfLastMonth);
+
+        long totalUsersNow = orZero(row.getTotalUsers());
+        long totalOrdersNow = orZero(row.getTotalOrders());
+        BigDecimal revenueThisMonth = row.getRevenueThisMonth() != null ? row.getRevenueThisMonth() : BigDecimal.ZERO;
+        BigDecimal revenueLastMonth = row.getRevenueLastMonth() != null ? row.getRevenueLastMonth() : BigDecimal.ZERO;
+
+        return new DashboardOverviewDTO(
+                totalUsersNow,
+                calculateGrowth(totalUsersNow, orZero(row.getUsersLastWeek())),
+                totalOrdersNow,
+                calculateGrowth(totalOrdersNow, orZero(row.getOrdersLastWeek())),
+                revenueThisMonth,
+                calculateRevenueGrowth(revenueThisMonth, revenueLastMonth),
+                orZero(row.getTotalStock())
+        );
+    }
 
-        return stats;
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 
     private double calculateGrowth(long current, long previous) {
@@ -99,114 +182,97 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         return current > 0 ? 100.0 : 0.0;
     }
 
-    @Override
-    public List<Map<String, Object>> getOrderStatusStats(LocalDateTime startDate, LocalDateTime endDate) {
-
-        List<Object[]> rawData = orderRepository.countOrdersByStatus(startDate, endDate);
-        List<Map<String, Object>> formattedResult = new ArrayList<>();
-
-        for (Object[] row : rawData) {
-            Map<String, Object> item = new HashMap<>();
-
-            String statusName = (row[0] != null) ? row[0].toString() : "UNKNOWN";
-
-            Long count = (row[1] != null) ? (Long) row[1] : 0L;
-
-            item.put("name", statusName);
-            item.put("value", count);
-
-            formattedResult.add(item);
+    private double calculateRevenueGrowth(BigDecimal current, BigDecimal previous) {
+        double revenueGrowth = 0.0;
+        if (previous.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal diff = current.subtract(previous);
+            revenueGrowth = diff.divide(previous, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100)).doubleValue();
+        } else if (current.compareTo(BigDecimal.ZERO) > 0) {
+            revenueGrowth = 100.0;
         }
+        return Math.round(revenueGrowth * 10.0) / 10.0;
+    }
 
-        return formattedResult;
+    @Override
+    public List<NameValueDTO> getOrderStatusStats(LocalDateTime startDate, LocalDateTime endDate) {
+        return orderRepository.countOrdersByStatus(startDate, endDate);
     }
 
     @Override
-    public List<Map<String, Object>> getTopSellingCategories() {
-        // Lấy Top 5 danh mục
-        Pageable topFive = PageRequest.of(0, 5);
-        List<Object[]> results = orderDetailRepository.findTopSellingCategories(topFive);
-
-        List<Map<String, Object>> stats = new ArrayList<>();
-        for (Object[] result : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", result[0].toString());      // Tên danh mục
-            item.put("value", result[1]);                // Tổng số lượng bán
-            stats.add(item);
-        }
-        return stats;
+    public List<NameValueDTO> getTopSellingCategories() {
+        // Lấy Top 5 danh mục (từ bộ đếm đã tổng hợp sẵn)
+        return salesStatsService.getTopSellingCategories(5);
     }
 
     @Override
-    public List<Map<String, Object>> getStagnantProducts() {
+    public List<StagnantProductDTO> getStagnantProducts() {
         // 3 tháng trước
         LocalDateTime threeMonthsAgo = LocalDateTime.now().minusMonths(3);
+        return productRepository.findStagnantProducts(threeMonthsAgo, PageRequest.of(0, 10));
+    }
 
-        List<Object[]> results = productRepository.findStagnantProducts(threeMonthsAgo, PageRequest.of(0, 10));
+    @Override
+    public List<StockAgingDTO> getStockAging() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockAgingProjection> rows = productRepository.findStockAging(
+                now.minusDays(30), now.minusDays(90), now.minusDays(180));
+
+        Map<String, StockAgingProjection> byBucket = new HashMap<>();
+        for (StockAgingProjection row : rows) {
+            byBucket.put(row.getBucket(), row);
+        }
 
-        List<Map<String, Object>> response = new ArrayList<>();
-        for (Object[] row : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", row[0]);
-            item.put("stock", row[1]);
-            item.put("image", row[2]);
-            item.put("status", "Không bán được đơn nào trong 3 tháng");
-            response.add(item);
+        // Luôn trả đủ các nhóm theo thứ tự cố định (nhóm trống = 0)
+        List<StockAgingDTO> result = new ArrayList<>(STOCK_AGING_BUCKETS.length);
+        for (String[] bucket : STOCK_AGING_BUCKETS) {
+            StockAgingProjection row = byBucket.get(bucket[0]);
+            result.add(new StockAgingDTO(
+                    bucket[0],
+                    bucket[1],
+                    row != null ? orZero(row.getProductCount()) : 0L,
+                    row != null ? orZero(row.getStockQuantity()) : 0L
+            ));
         }
-        return response;
+        return result;
     }
 
     @Override
-    public List<Map<String, Object>> getTopSellingProducts() {
-        // Lấy Top 5 sản phẩm
-        Pageable topFive = PageRequest.of(0, 5);
-        List<Object[]> results = orderDetailRepository.findTopSellingProducts(topFive);
-
-        List<Map<String, Object>> stats = new ArrayList<>();
-        for (Object[] result : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", result[0]);                 // Tên SP
-            item.put("image", result[1]);                // Ảnh
-            item.put("price", result[2]);                // Giá
-            item.put("sold", result[3]);                 // Tổng bán
-            stats.add(item);
-        }
-        return stats;
+    public List<TopProductDTO> getTopSellingProducts() {
+        // Lấy Top 5 sản phẩm (từ bộ đếm đã tổng hợp sẵn)
+        return salesStatsService.getTopSellingProducts(5);
     }
 
     @Override
-    public List<Map<String, Object>> getRevenueComparison() {
+    public List<RevenueComparisonDTO> getRevenueComparison() {
         List<RevenueComparisonProjection> rawData = orderRepository.getRevenueComparison();
 
-        List<Map<String, Object>> result = new ArrayList<>();
+        List<RevenueComparisonDTO> result = new ArrayList<>(rawData.size());
         for (RevenueComparisonProjection p : rawData) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("label", p.getLabel());
-            item.put("actual", p.getActual());
-            item.put("estimated", p.getEstimated());
-            result.add(item);
+            result.add(new RevenueComparisonDTO(p.getLabel(), p.getActual(), p.getEstimated()));
         }
         return result;
     }
 
     @Override
-    public List<Map<String, Object>> getTopCustomers() {
+    public List<TopCustomerDTO> getTopCustomers() {
+        // Native query (LIMIT) nên không dùng được constructor expression
         List<Object[]> results = orderRepository.findTopSpendingCustomers();
-        List<Map<String, Object>> list = new ArrayList<>();
 
+        List<TopCustomerDTO> list = new ArrayList<>(results.size());
         for (Object[] row : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", row[0]);
-            item.put("email", row[1]);
-            item.put("avatar", row[2]);
-            item.put("totalSpent", row[3]);
-            list.add(item);
+            list.add(new TopCustomerDTO(
+                    (String) row[0],
+                    (String) row[1],
+                    (String) row[2],
+                    toBigDecimal(row[3])
+            ));
         }
         return list;
     }
 
     @Override
-    public List<Map<String, Object>> getRevenueStatistics(String timeRange) {
+    public List<RevenuePointDTO> getRevenueStatistics(String timeRange) {
         LocalDateTime endDate = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
         LocalDateTime startDate;
 
@@ -226,16 +292,14 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
 
     // 2. [MỚI] Method xử lý Custom Date Range (cho Export)
     @Override
-    public List<Map<String, Object>> getRevenueStatisticsByDateRange(String fromDateStr, String toDateStr) {
+    public List<RevenuePointDTO> getRevenueStatisticsByDateRange(String fromDateStr, String toDateStr) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
             // Parse String (yyyy-MM-dd) thành LocalDateTime
             // Ngày bắt đầu: 00:00:00
-            LocalDateTime startDate = LocalDate.parse(fromDateStr, formatter).atStartOfDay();
+            LocalDateTime startDate = LocalDate.parse(fromDateStr, INPUT_DATE_FORMATTER).atStartOfDay();
 
             // Ngày kết thúc: 23:59:59
-            LocalDateTime endDate = LocalDate.parse(toDateStr, formatter).atTime(LocalTime.MAX);
+            LocalDateTime endDate = LocalDate.parse(toDateStr, INPUT_DATE_FORMATTER).atTime(LocalTime.MAX);
 
             return processChartData(startDate, endDate);
         } catch (DateTimeParseException e) {
@@ -243,86 +307,132 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         }
     }
 
-    // 3. [HELPER] Hàm chung để Query và Map dữ liệu (Tách từ code cũ của bạn ra)
-    private List<Map<String, Object>> processChartData(LocalDateTime startDate, LocalDateTime endDate) {
+    // 3. [HELPER] Hàm chung để Query và Map dữ liệu
+    // Mỗi ngày trong khoảng là 1 ô trong mảng (index = số ngày tính từ startDate),
+    // không cần Map<LocalDate, Map> trung gian.
+    private List<RevenuePointDTO> processChartData(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate start = startDate.toLocalDate();
+        LocalDate end = endDate.toLocalDate();
+        if (end.isBefore(start)) {
+            return new ArrayList<>();
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        BigDecimal[] revenues = new BigDecimal[days];
+        long[] orderCounts = new long[days];
+
         // Lấy dữ liệu thô từ DB
         List<Object[]> rawData = orderRepository.findRevenueChartData(startDate, endDate);
-
-        // Map dữ liệu vào HashMap (Key: LocalDate -> Value: Data)
-        Map<LocalDate, Map<String, Object>> dataMap = new HashMap<>();
         for (Object[] row : rawData) {
-            LocalDate date;
-            if (row[0] instanceof java.sql.Date) {
-                date = ((java.sql.Date) row[0]).toLocalDate();
-            } else {
-                date = LocalDate.parse(row[0].toString());
-            }
-
-            BigDecimal amount = (BigDecimal) row[1];
-            Long count = (Long) row[2];
-
-            Map<String, Object> values = new HashMap<>();
-            values.put("revenue", amount);
-            values.put("count", count);
+            int index = (int) ChronoUnit.DAYS.between(start, toLocalDate(row[0]));
+            if (index < 0 || index >= days) continue;
 
-            dataMap.put(date, values);
+            revenues[index] = toBigDecimal(row[1]);
+            orderCounts[index] = row[2] != null ? ((Number) row[2]).longValue() : 0L;
         }
 
-        // Loop để fill data đầy đủ các ngày (kể cả ngày không có đơn)
-        List<Map<String, Object>> result = new ArrayList<>();
-        LocalDate current = startDate.toLocalDate();
-        LocalDate end = endDate.toLocalDate();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy"); // Format đẹp cho báo cáo
-
-        while (!current.isAfter(end)) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("label", current.format(formatter)); // VD: 10/12/2025
-
-            if (dataMap.containsKey(current)) {
-                item.put("revenue", dataMap.get(current).get("revenue"));
-                item.put("orderCount", dataMap.get(current).get("count"));
-            } else {
-                item.put("revenue", BigDecimal.ZERO);
-                item.put("orderCount", 0L);
-            }
-            result.add(item);
+        // Fill data đầy đủ các ngày (kể cả ngày không có đơn)
+        List<RevenuePointDTO> result = new ArrayList<>(days);
+        LocalDate current = start;
+        for (int i = 0; i < days; i++) {
+            result.add(new RevenuePointDTO(
+                    current.format(CHART_LABEL_FORMATTER), // VD: 10/12/2025
+                    revenues[i] != null ? revenues[i] : BigDecimal.ZERO,
+                    orderCounts[i]
+            ));
             current = current.plusDays(1);
         }
         return result;
     }
 
     @Override
-    public List<Map<String, Object>> getPeakHoursStats() {
-        List<Object[]> results = orderRepository.findOrdersByHour();
-        // Tạo map mặc định 0-23h đều bằng 0
-        Map<Integer, Long> hourMap = new HashMap<>();
-        for (int i = 0; i < 24; i++) hourMap.put(i, 0L);
-
-        for (Object[] row : results) {
-            hourMap.put((Integer) row[0], (Long) row[1]);
-        }
+    public List<PeakHourDTO> getPeakHoursStats() {
+        // Histogram 24 giờ được cộng dồn khi đặt/hủy đơn
+        long[] buckets = salesStatsService.getOrdersByHour();
 
-        List<Map<String, Object>> list = new ArrayList<>();
+        List<PeakHourDTO> list = new ArrayList<>(24);
         for (int i = 0; i < 24; i++) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("hour", i + "h"); // Label: 1h, 2h...
-            item.put("value", hourMap.get(i));
-            list.add(item);
+            list.add(new PeakHourDTO(HOUR_LABELS[i], buckets[i]));
         }
         return list;
     }
 
     @Override
-    public List<Map<String, Object>> getLowStockProducts() {
+    public List<LowStockProductDTO> getLowStockProducts() {
         // Lấy 10 sản phẩm thấp nhất
-        List<Object[]> results = productRepository.findLowStockProducts(PageRequest.of(0, 10));
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (Object[] row : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("name", row[0]);
-            item.put("stock", row[1]);
-            list.add(item);
+        return productRepository.findLowStockProducts(PageRequest.of(0, 10));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) return localDate;
+        if (value instanceof java.sql.Date sqlDate) return sqlDate.toLocalDate();
+        return LocalDate.parse(value.toString());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal decimal) return decimal;
+        return new BigDecimal(value.toString());
+    }
+
+    @Override
+    public DashboardBundleDTO getDashboardBundle(LocalDateTime statusStartDate, LocalDateTime statusEndDate, String revenueRange) {
+        // Khởi chạy tất cả section cùng lúc trên pool riêng
+        CompletableFuture<DashboardOverviewDTO> overview = submit(this::getDashboardOverview);
+        CompletableFuture<List<NameValueDTO>> orderStatus = submit(() -> getOrderStatusStats(statusStartDate, statusEndDate));
+        CompletableFuture<List<NameValueDTO>> topCategories = submit(this::getTopSellingCategories);
+        CompletableFuture<List<TopProductDTO>> topProducts = submit(this::getTopSellingProducts);
+        CompletableFuture<List<TopCustomerDTO>> topCustomers = submit(this::getTopCustomers);
+        CompletableFuture<List<RevenueComparisonDTO>> revenueComparison = submit(this::getRevenueComparison);
+        CompletableFuture<List<RevenuePointDTO>> revenueChart = submit(() -> getRevenueStatistics(revenueRange));
+        CompletableFuture<List<PeakHourDTO>> peakHours = submit(this::getPeakHoursStats);
+        CompletableFuture<List<LowStockProductDTO>> lowStock = submit(this::getLowStockProducts);
+        CompletableFuture<List<StagnantProductDTO>> stagnant = submit(this::getStagnantProducts);
+
+        // Tổng thời gian chờ = section chậm nhất (tối đa sectionTimeoutMs), không phải tổng các section
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        List<String> failed = new ArrayList<>();
+
+        return new DashboardBundleDTO(
+                await("overview", overview, deadline, failed),
+                await("orderStatus", orderStatus, deadline, failed),
+                await("topCategories", topCategories, deadline, failed),
+                await("topProducts", topProducts, deadline, failed),
+                await("topCustomers", topCustomers, deadline, failed),
+                await("revenueComparison", revenueComparison, deadline, failed),
+                await("revenueChart", revenueChart, deadline, failed),
+                await("peakHours", peakHours, deadline, failed),
+                await("lowStock", lowStock, deadline, failed),
+                await("stagnant", stagnant, deadline, failed),
+                Collections.unmodifiableList(failed)
+        );
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> section) {
+        try {
+            return CompletableFuture.supplyAsync(() -> sectionTransaction.execute(status -> section.get()), dashboardExecutor);
+        } catch (RuntimeException e) {
+            // Pool đầy (RejectedExecution) -> section này coi như lỗi
+            return CompletableFuture.failedFuture(e);
         }
-        return list;
     }
-}
\ No newline at end of file
+
+    // Chờ 1 section đến deadline chung; lỗi hoặc quá hạn thì trả null (partial result)
+    private <T> T await(String name, CompletableFuture<T> future, long deadline, List<String> failed) {
+        try {
+            long remaining = Math.max(0L, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Dashboard section {} timed out after {} ms", name, sectionTimeoutMs);
+            future.cancel(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        } catch (ExecutionException e) {
+            // Section lỗi vẫn trả partial result, nhưng phải để lại dấu vết nguyên nhân
+            log.warn("Dashboard section {} failed", name, e.getCause());
+        }
+        failed.add(name);
+        return null;
+    }
+}
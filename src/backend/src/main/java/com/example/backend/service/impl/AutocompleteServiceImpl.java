@@ -0,0 +1,374 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.AutocompleteSuggestionDTO;
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.model.Category;
+import com.example.backend.model.Product;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.service.AutocompleteService;
+import com.example.backend.util.VietnameseText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Gợi ý khi gõ (autocomplete) từ cây tiền tố (trie) trong bộ nhớ, không truy vấn DB.
+// - Khóa là tên đã bỏ dấu, index từ đầu mỗi từ ("ban an go" -> "ban an go", "an go", "go")
+// - Mỗi nút giữ sẵn top-K mục bán chạy nhất của cả nhánh con -> tra cứu chỉ tốn O(độ dài tiền tố)
+// - Sửa 1 sản phẩm chỉ tính lại top-K trên các nút thuộc đường đi của khóa đó
+@Service
+public class AutocompleteServiceImpl implements AutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteServiceImpl.class);
+
+    private static final int TOP_K = 10;
+    // Giới hạn độ sâu để cây không phình theo tên dài; tiền tố dài hơn thì lọc tiếp ở nút cuối
+    private static final int MAX_DEPTH = 24;
+    private static final int MAX_TRACKED_QUERIES = 50_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${search.autocomplete.popular-queries:500}")
+    private int maxPopularQueries;
+
+    @Value("${search.autocomplete.min-query-count:3}")
+    private int minQueryCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Trie trie = new Trie();
+
+    // Từ khóa đã tìm (đã bỏ dấu) -> số lần tìm + cách viết gần nhất để hiển thị
+    private final Map<String, QueryStat> queryStats = new ConcurrentHashMap<>();
+
+    private final Set<String> changedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+
+    private static final class QueryStat {
+        final LongAdder count = new LongAdder();
+        volatile String display;
+    }
+
+    private static final class Entry {
+        final AutocompleteSuggestionDTO suggestion;
+        final String[] keys;
+
+        Entry(AutocompleteSuggestionDTO suggestion, String[] keys) {
+            this.suggestion = suggestion;
+            this.keys = keys;
+        }
+
+        long popularity() {
+            return suggestion.popularity();
+        }
+    }
+
+    // Nút trie: con lưu theo mảng ký tự đã sắp xếp (tìm nhị phân), gọn hơn HashMap cho mỗi nút
+    private static final class Node {
+        char[] chars = new char[0];
+        Node[] children = new Node[0];
+        int[] terminals = new int[0]; // mục có khóa kết thúc tại nút này
+        int[] top = new int[0];       // top-K mục của cả nhánh, giảm dần theo độ bán chạy
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node node = new Node();
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newChars[at] = c;
+            newChildren[at] = node;
+            System.arraycopy(chars, at, newChars, at + 1, chars.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            chars = newChars;
+            children = newChildren;
+            return node;
+        }
+
+        void addTerminal(int entry) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = entry;
+        }
+
+        void removeTerminal(int entry) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i] == entry) {
+                    terminals[i] = terminals[terminals.length - 1];
+                    terminals = Arrays.copyOf(terminals, terminals.length - 1);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Trie {
+        final Node root = new Node();
+        final List<Entry> entries = new ArrayList<>();       // entryId -> Entry (null nếu đã gỡ)
+        final Map<String, Integer> productEntries = new HashMap<>();
+    }
+
+    @Override
+    public List<AutocompleteSuggestionDTO> suggest(String prefix, int limit) {
+        String key = toKey(prefix, true);
+        if (key.isEmpty()) return List.of();
+        int k = Math.max(1, Math.min(limit, TOP_K));
+
+        lock.readLock().lock();
+        try {
+            Trie t = trie;
+            Node node = t.root;
+            int depth = Math.min(key.length(), MAX_DEPTH);
+            for (int i = 0; i < depth && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) return List.of();
+
+            List<AutocompleteSuggestionDTO> result = new ArrayList<>(k);
+            if (key.length() <= MAX_DEPTH) {
+                for (int i = 0; i < node.top.length && result.size() < k; i++) {
+                    result.add(t.entries.get(node.top[i]).suggestion);
+                }
+                return result;
+            }
+
+            // Tiền tố dài hơn độ sâu tối đa: mọi mục khớp đều kết thúc tại nút này, lọc lại theo khóa đầy đủ
+            int[] matched = Arrays.stream(node.terminals)
+                    .filter(id -> Arrays.stream(t.entries.get(id).keys).anyMatch(s -> s.startsWith(key)))
+                    .toArray();
+            for (int id : selectTop(t, matched, k)) {
+                result.add(t.entries.get(id).suggestion);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordQuery(String query) {
+        String key = toKey(query, false);
+        if (key.length() < 2) return;
+        QueryStat stat = queryStats.get(key);
+        if (stat == null) {
+            if (queryStats.size() >= MAX_TRACKED_QUERIES) return;
+            stat = queryStats.computeIfAbsent(key, q -> new QueryStat());
+        }
+        stat.count.increment();
+        stat.display = query.trim();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.autocomplete.rebuild-ms:600000}", fixedDelayString = "${search.autocomplete.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (changedDuringRebuild) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        try {
+            Trie fresh = new Trie();
+            for (Product product : productRepository.findAll()) {
+                insert(fresh, productEntry(product), false);
+            }
+            for (Category category : categoryRepository.findAll()) {
+                insert(fresh, new Entry(new AutocompleteSuggestionDTO(category.getCategoryName(), "CATEGORY",
+                        null, category.getCategoryId(), category.getSoldCount()), keys(category.getCategoryName())), false);
+            }
+            queryStats.entrySet().stream()
+                    .filter(e -> e.getValue().count.sum() >= minQueryCount)
+                    .sorted(Comparator.comparingLong((Map.Entry<String, QueryStat> e) -> e.getValue().count.sum()).reversed())
+                    .limit(maxPopularQueries)
+                    .forEach(e -> insert(fresh, new Entry(new AutocompleteSuggestionDTO(e.getValue().display, "QUERY",
+                            null, null, e.getValue().count.sum()), new String[]{e.getKey()}), false));
+            computeTops(fresh, fresh.root);
+
+            Set<String> changed;
+            lock.writeLock().lock();
+            try {
+                trie = fresh;
+                synchronized (changedDuringRebuild) {
+                    rebuilding = false;
+                    changed = new HashSet<>(changedDuringRebuild);
+                    changedDuringRebuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changed.forEach(this::reindexProduct);
+            log.info("Autocomplete trie rebuilt: {} entries", fresh.entries.size());
+        } catch (RuntimeException e) {
+            synchronized (changedDuringRebuild) {
+                rebuilding = false;
+            }
+            log.warn("Could not rebuild autocomplete trie: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void reindexProduct(String productId) {
+        synchronized (changedDuringRebuild) {
+            if (rebuilding) changedDuringRebuild.add(productId);
+        }
+        Product product = productRepository.findById(productId).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            Trie t = trie;
+            Integer old = t.productEntries.remove(productId);
+            if (old != null) remove(t, old);
+            if (product != null) insert(t, productEntry(product), true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    // --- CẬP NHẬT TRIE ---
+
+    private Entry productEntry(Product product) {
+        return new Entry(new AutocompleteSuggestionDTO(product.getProductName(), "PRODUCT",
+                product.getProductId(), product.getCategoryId(), product.getSoldCount()), keys(product.getProductName()));
+    }
+
+    // updateTops = false khi dựng cả cây: tính top-K 1 lần cuối bằng duyệt hậu thứ tự
+    private void insert(Trie t, Entry entry, boolean updateTops) {
+        if (entry.keys.length == 0) return;
+        int id = t.entries.size();
+        t.entries.add(entry);
+        if (entry.suggestion.productId() != null) t.productEntries.put(entry.suggestion.productId(), id);
+
+        List<List<Node>> paths = new ArrayList<>(entry.keys.length);
+        for (String key : entry.keys) {
+            List<Node> path = new ArrayList<>(MAX_DEPTH + 1);
+            Node node = t.root;
+            path.add(node);
+            for (int i = 0; i < Math.min(key.length(), MAX_DEPTH); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path.add(node);
+            }
+            node.addTerminal(id);
+            paths.add(path);
+        }
+        if (updateTops) refreshPaths(t, paths);
+    }
+
+    private void remove(Trie t, int id) {
+        Entry entry = t.entries.get(id);
+        List<List<Node>> paths = new ArrayList<>(entry.keys.length);
+        for (String key : entry.keys) {
+            List<Node> path = new ArrayList<>(MAX_DEPTH + 1);
+            Node node = t.root;
+            path.add(node);
+            for (int i = 0; i < Math.min(key.length(), MAX_DEPTH) && node != null; i++) {
+                node = node.child(key.charAt(i));
+                if (node != null) path.add(node);
+            }
+            if (node == null) continue;
+            node.removeTerminal(id);
+            paths.add(path);
+        }
+        refreshPaths(t, paths);
+        t.entries.set(id, null);
+    }
+
+    // Tính lại top-K từ tầng sâu nhất lên gốc trên mọi đường đi của 1 mục (các khóa dùng chung nút gần gốc).
+    // Mỗi nút chỉ cần gộp top-K của các con + mục kết thúc tại nó.
+    private void refreshPaths(Trie t, List<List<Node>> paths) {
+        Set<Node> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int depth = MAX_DEPTH; depth >= 0; depth--) {
+            for (List<Node> path : paths) {
+                if (depth < path.size() && done.add(path.get(depth))) {
+                    recomputeTop(t, path.get(depth));
+                }
+            }
+        }
+    }
+
+    private void computeTops(Trie t, Node node) {
+        for (Node child : node.children) {
+            computeTops(t, child);
+        }
+        recomputeTop(t, node);
+    }
+
+    private void recomputeTop(Trie t, Node node) {
+        int size = node.terminals.length;
+        for (Node child : node.children) size += child.top.length;
+        int[] candidates = Arrays.copyOf(node.terminals, size);
+        int at = node.terminals.length;
+        for (Node child : node.children) {
+            System.arraycopy(child.top, 0, candidates, at, child.top.length);
+            at += child.top.length;
+        }
+        node.top = selectTop(t, candidates, TOP_K);
+    }
+
+    // K mục bán chạy nhất, bỏ trùng (1 sản phẩm có nhiều khóa nên có thể xuất hiện ở nhiều nhánh con)
+    private static int[] selectTop(Trie t, int[] candidates, int k) {
+        Integer[] boxed = Arrays.stream(candidates).distinct().boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, Comparator.<Integer>comparingLong(id -> t.entries.get(id).popularity()).reversed()
+                .thenComparingInt(id -> t.entries.get(id).suggestion.text().length()));
+        int n = Math.min(k, boxed.length);
+        int[] top = new int[n];
+        for (int i = 0; i < n; i++) top[i] = boxed[i];
+        return top;
+    }
+
+    // --- CHUẨN HÓA KHÓA ---
+
+    // "Bàn ăn Gỗ" -> ["ban an go", "an go", "go"]
+    private static String[] keys(String text) {
+        List<String> tokens = VietnameseText.tokenize(text);
+        String[] keys = new String[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            keys[i] = String.join(" ", tokens.subList(i, tokens.size()));
+        }
+        return keys;
+    }
+
+    // keepTrailingSpace: người dùng gõ "ban " thì chỉ gợi ý từ tiếp theo, không gợi ý "bang..."
+    private static String toKey(String text, boolean keepTrailingSpace) {
+        if (text == null) return "";
+        String key = String.join(" ", VietnameseText.tokenize(text));
+        if (keepTrailingSpace && !key.isEmpty() && Character.isWhitespace(text.charAt(text.length() - 1))) {
+            key += " ";
+        }
+        return key;
+    }
+}
@@ -0,0 +1,515 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.CatalogItemDTO;
+import com.example.backend.DTO.CatalogPageDTO;
+import com.example.backend.DTO.CatalogQuery;
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.PriceQuote;
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.event.ProductRatingChangedEvent;
+import com.example.backend.event.ProductStockChangedEvent;
+import com.example.backend.model.Product;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.service.CatalogQueryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Danh sách sản phẩm có lọc + đếm facet, chạy trên bảng dạng cột trong bộ nhớ:
+// - Mỗi thuộc tính (giá, % giảm, tồn kho, đã bán...) là 1 mảng nguyên thủy, chỉ số mảng = số dòng
+// - Thuộc tính dạng chữ (danh mục, màu, chất liệu, kích thước, xuất xứ, khoảng giá) được mã hóa từ điển,
+//   mỗi giá trị có 1 bitmap các dòng mang giá trị đó
+// - Lọc = AND/OR bitmap; số lượng facet = số bit 1 của (bitmap kết quả AND bitmap giá trị)
+@Service
+public class CatalogQueryServiceImpl implements CatalogQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogQueryServiceImpl.class);
+
+    // Khoảng giá (theo giá sau giảm, đơn vị đồng) - khớp với các lựa chọn lọc giá ở trang sản phẩm
+    private static final long[] PRICE_BAND_BOUNDS = {1_000_000L, 3_000_000L, 7_000_000L};
+    private static final String[] PRICE_BAND_LABELS = {"0-1000000", "1000000-3000000", "3000000-7000000", "7000000+"};
+
+    // Khóa sắp xếp = (giá trị << ROW_BITS) | số dòng, để chọn top-N trên mảng long không cần boxing
+    private static final int ROW_BITS = 24;
+    private static final long MAX_SORT_VALUE = (1L << (63 - ROW_BITS)) - 1;
+
+    private static final int CATEGORY = 0, COLOR = 1, MATERIAL = 2, SIZE = 3, ORIGIN = 4, PRICE_BAND = 5;
+    private static final String[] FACET_NAMES = {"category", "color", "material", "size", "origin", "priceBand"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Table table = new Table(16);
+
+    private final Set<String> changedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+
+    // Bitmap đơn giản trên long[] (1 bit / dòng), tự giãn theo số dòng
+    private static final class Bits {
+        long[] words;
+
+        Bits(int capacity) {
+            words = new long[(capacity + 63) >>> 6];
+        }
+
+        void set(int row) {
+            ensure(row);
+            words[row >>> 6] |= 1L << row;
+        }
+
+        void clear(int row) {
+            if ((row >>> 6) < words.length) words[row >>> 6] &= ~(1L << row);
+        }
+
+        void ensure(int row) {
+            if ((row >>> 6) >= words.length) words = Arrays.copyOf(words, Math.max(words.length * 2, (row >>> 6) + 1));
+        }
+
+        Bits copy() {
+            Bits b = new Bits(0);
+            b.words = words.clone();
+            return b;
+        }
+
+        void and(Bits other) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= i < other.words.length ? other.words[i] : 0L;
+            }
+        }
+
+        void or(Bits other) {
+            if (other.words.length > words.length) words = Arrays.copyOf(words, other.words.length);
+            for (int i = 0; i < other.words.length; i++) words[i] |= other.words[i];
+        }
+
+        int cardinality() {
+            int count = 0;
+            for (long w : words) count += Long.bitCount(w);
+            return count;
+        }
+
+        // |this AND other| mà không tạo bitmap trung gian
+        int andCardinality(Bits other) {
+            int count = 0;
+            int n = Math.min(words.length, other.words.length);
+            for (int i = 0; i < n; i++) count += Long.bitCount(words[i] & other.words[i]);
+            return count;
+        }
+    }
+
+    // 1 cột mã hóa từ điển + bitmap theo từng giá trị
+    private static final class Dimension {
+        final Map<String, Integer> codes = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+        final List<Bits> bitmaps = new ArrayList<>();
+        int[] rowCodes;
+
+        Dimension(int capacity) {
+            rowCodes = new int[capacity];
+            Arrays.fill(rowCodes, -1);
+        }
+
+        void set(int row, String value) {
+            int code = -1;
+            if (value != null && !value.isBlank()) {
+                String v = value.trim();
+                code = codes.computeIfAbsent(v, key -> {
+                    values.add(key);
+                    bitmaps.add(new Bits(rowCodes.length));
+                    return values.size() - 1;
+                });
+                bitmaps.get(code).set(row);
+            }
+            rowCodes[row] = code;
+        }
+
+        void clear(int row) {
+            int code = rowCodes[row];
+            if (code >= 0) bitmaps.get(code).clear(row);
+            rowCodes[row] = -1;
+        }
+
+        void grow(int capacity) {
+            int old = rowCodes.length;
+            rowCodes = Arrays.copyOf(rowCodes, capacity);
+            Arrays.fill(rowCodes, old, capacity, -1);
+        }
+
+        String valueOf(int row) {
+            int code = rowCodes[row];
+            return code >= 0 ? values.get(code) : null;
+        }
+
+        // OR bitmap của các giá trị được chọn; giá trị không tồn tại -> không khớp dòng nào
+        Bits union(List<String> selected, int capacity) {
+            Bits result = new Bits(capacity);
+            for (String value : selected) {
+                Integer code = codes.get(value.trim());
+                if (code != null) result.or(bitmaps.get(code));
+            }
+            return result;
+        }
+    }
+
+    private static final class Table {
+        int size;
+        int capacity;
+        final Map<String, Integer> rowOf = new HashMap<>();
+        String[] productIds, names, imageUrls;
+        long[] priceMinor, finalPriceMinor, soldCount, createdAt;
+        int[] discountBps, quantity, ratingCount;
+        long[] ratingSum;
+        final Dimension[] dimensions = new Dimension[FACET_NAMES.length];
+        final Bits live, inStock;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            productIds = new String[capacity];
+            names = new String[capacity];
+            imageUrls = new String[capacity];
+            priceMinor = new long[capacity];
+            finalPriceMinor = new long[capacity];
+            soldCount = new long[capacity];
+            createdAt = new long[capacity];
+            discountBps = new int[capacity];
+            quantity = new int[capacity];
+            ratingCount = new int[capacity];
+            ratingSum = new long[capacity];
+            for (int i = 0; i < dimensions.length; i++) dimensions[i] = new Dimension(capacity);
+            live = new Bits(capacity);
+            inStock = new Bits(capacity);
+        }
+
+        int newRow() {
+            if (size == 1 << ROW_BITS) throw new RuntimeException("Bảng sản phẩm trong bộ nhớ đã đầy");
+            if (size == capacity) {
+                capacity *= 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                imageUrls = Arrays.copyOf(imageUrls, capacity);
+                priceMinor = Arrays.copyOf(priceMinor, capacity);
+                finalPriceMinor = Arrays.copyOf(finalPriceMinor, capacity);
+                soldCount = Arrays.copyOf(soldCount, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                discountBps = Arrays.copyOf(discountBps, capacity);
+                quantity = Arrays.copyOf(quantity, capacity);
+                ratingCount = Arrays.copyOf(ratingCount, capacity);
+                ratingSum = Arrays.copyOf(ratingSum, capacity);
+                for (Dimension d : dimensions) d.grow(capacity);
+            }
+            return size++;
+        }
+    }
+
+    @Override
+    public CatalogPageDTO query(CatalogQuery q) {
+        lock.readLock().lock();
+        try {
+            Table t = table;
+
+            // 1. Điều kiện chung cho mọi facet: còn bán, còn hàng, khoảng giá tự nhập
+            Bits base = t.live.copy();
+            if (q.inStockOnly()) base.and(t.inStock);
+            if (q.minPrice() != null || q.maxPrice() != null) {
+                base.and(priceRange(t, q.minPrice(), q.maxPrice()));
+            }
+
+            // 2. Bitmap lọc của từng nhóm (null = nhóm không lọc)
+            List<List<String>> selected = List.of(q.categoryIds(), q.colors(), q.materials(), q.sizes(), q.origins(), q.priceBands());
+            Bits[] filters = new Bits[FACET_NAMES.length];
+            for (int d = 0; d < filters.length; d++) {
+                if (!selected.get(d).isEmpty()) filters[d] = t.dimensions[d].union(selected.get(d), t.capacity);
+            }
+
+            Bits result = base.copy();
+            for (Bits f : filters) {
+                if (f != null) result.and(f);
+            }
+
+            // 3. Facet của 1 nhóm đếm trên kết quả lọc bởi các nhóm KHÁC, để vẫn thấy số lượng của lựa chọn thay thế
+            Map<String, List<NameValueDTO>> facets = new LinkedHashMap<>();
+            for (int d = 0; d < FACET_NAMES.length; d++) {
+                Bits scope = result;
+                if (filters[d] != null) {
+                    scope = base.copy();
+                    for (int other = 0; other < filters.length; other++) {
+                        if (other != d && filters[other] != null) scope.and(filters[other]);
+                    }
+                }
+                Dimension dim = t.dimensions[d];
+                List<NameValueDTO> counts = new ArrayList<>(dim.values.size());
+                for (int code = 0; code < dim.values.size(); code++) {
+                    int count = scope.andCardinality(dim.bitmaps.get(code));
+                    if (count > 0) counts.add(new NameValueDTO(dim.values.get(code), (long) count));
+                }
+                counts.sort((a, b) -> Long.compare(b.value(), a.value()));
+                facets.put(FACET_NAMES[d], counts);
+            }
+
+            // 4. Chọn đúng trang cần trả về
+            // Tính offset bằng long: page lớn nhân limit tràn int thành số âm
+            int total = result.cardinality();
+            long offset = (long) q.page() * q.limit();
+            if (offset >= total) {
+                return new CatalogPageDTO(total, q.page(), q.limit(), List.of(), facets);
+            }
+            int from = (int) offset;
+            int to = Math.min(from + q.limit(), total);
+            List<CatalogItemDTO> items = new ArrayList<>(to - from);
+            for (int row : topRows(t, result, q.sort(), to, from)) {
+                items.add(toItem(t, row));
+            }
+            return new CatalogPageDTO(total, q.page(), q.limit(), items, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${catalog.columns.rebuild-ms:300000}", fixedDelayString = "${catalog.columns.rebuild-ms:300000}")
+    public void rebuild() {
+        synchronized (changedDuringRebuild) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        try {
+            List<Product> products = productRepository.findAll();
+            Table fresh = new Table(Math.max(16, products.size()));
+            for (Product product : products) {
+                int row = fresh.newRow();
+                fresh.rowOf.put(product.getProductId(), row);
+                writeRow(fresh, row, product);
+            }
+
+            Set<String> changed;
+            lock.writeLock().lock();
+            try {
+                table = fresh;
+                synchronized (changedDuringRebuild) {
+                    rebuilding = false;
+                    changed = new HashSet<>(changedDuringRebuild);
+                    changedDuringRebuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changed.forEach(this::reindexProduct);
+            log.info("Catalog columns rebuilt: {} products", fresh.size);
+        } catch (RuntimeException e) {
+            synchronized (changedDuringRebuild) {
+                rebuilding = false;
+            }
+            log.warn("Could not rebuild catalog columns: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void reindexProduct(String productId) {
+        synchronized (changedDuringRebuild) {
+            if (rebuilding) changedDuringRebuild.add(productId);
+        }
+        Product product = productRepository.findById(productId).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            Table t = table;
+            Integer row = t.rowOf.get(productId);
+            if (row != null) clearRow(t, row);
+            if (product == null) {
+                t.rowOf.remove(productId);
+                return;
+            }
+            // Dòng của sản phẩm bị xóa không dùng lại, lần dựng lại toàn bộ tiếp theo sẽ dồn bảng
+            if (row == null) {
+                row = t.newRow();
+                t.rowOf.put(productId, row);
+            }
+            writeRow(t, row, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    // Sắp xếp "top_rated" và điểm hiển thị đọc từ bảng này
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductRatingChanged(ProductRatingChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    // Đặt / hủy đơn và đồng bộ shard đổi quantity, sold_count: cập nhật lọc "còn hàng" và sắp xếp bán chạy ngay
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    // --- GHI / XÓA DÒNG ---
+
+    private void writeRow(Table t, int row, Product product) {
+        long price = toMinor(product.getPrice());
+        int discountBps = product.getDiscount() != null
+                ? product.getDiscount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValue() : 0;
+        discountBps = Math.max(0, Math.min(discountBps, 10_000));
+        long finalPrice = price - (price * discountBps + 5_000) / 10_000;
+
+        t.productIds[row] = product.getProductId();
+        t.names[row] = product.getProductName();
+        t.imageUrls[row] = product.getImageUrl();
+        t.priceMinor[row] = price;
+        t.discountBps[row] = discountBps;
+        t.finalPriceMinor[row] = finalPrice;
+        t.quantity[row] = product.getQuantity();
+        t.soldCount[row] = product.getSoldCount();
+        t.ratingCount[row] = product.getRatingCount();
+        t.ratingSum[row] = product.getRatingSum();
+        t.createdAt[row] = product.getCreatedAt() != null ? product.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+
+        t.dimensions[CATEGORY].set(row, product.getCategoryId());
+        t.dimensions[COLOR].set(row, product.getColor());
+        t.dimensions[MATERIAL].set(row, product.getMaterial());
+        t.dimensions[SIZE].set(row, product.getSize());
+        t.dimensions[ORIGIN].set(row, product.getOrigin());
+        t.dimensions[PRICE_BAND].set(row, PRICE_BAND_LABELS[priceBand(finalPrice)]);
+
+        t.live.set(row);
+        // Sản phẩm chia shard: products.quantity được rebalance đồng bộ định kỳ nên vẫn dùng được cho lọc "còn hàng"
+        if (product.getQuantity() > 0) t.inStock.set(row);
+        else t.inStock.clear(row);
+    }
+
+    private void clearRow(Table t, int row) {
+        for (Dimension d : t.dimensions) d.clear(row);
+        t.live.clear(row);
+        t.inStock.clear(row);
+    }
+
+    // --- ĐỌC ---
+
+    private Bits priceRange(Table t, BigDecimal min, BigDecimal max) {
+        long lo = min != null ? toMinor(min) : Long.MIN_VALUE;
+        long hi = max != null ? toMinor(max) : Long.MAX_VALUE;
+        Bits bits = new Bits(t.capacity);
+        long[] prices = t.finalPriceMinor;
+        for (int row = 0; row < t.size; row++) {
+            if (prices[row] >= lo && prices[row] <= hi) bits.set(row);
+        }
+        return bits;
+    }
+
+    // Top-n dòng theo thứ tự sắp xếp bằng max-heap kích thước n trên khóa long, trả về phần [skip, n)
+    private int[] topRows(Table t, Bits rows, String sort, int n, int skip) {
+        long[] heap = new long[n];
+        int heapSize = 0;
+        long[] words = rows.words;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                long key = (sortValue(t, row, sort) << ROW_BITS) | row;
+                if (heapSize < n) {
+                    heap[heapSize] = key;
+                    siftUp(heap, heapSize++);
+                } else if (key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(heap, heapSize);
+        Arrays.sort(sorted);
+        int[] result = new int[Math.max(0, heapSize - skip)];
+        for (int i = skip; i < heapSize; i++) {
+            result[i - skip] = (int) (sorted[i] & ((1L << ROW_BITS) - 1));
+        }
+        return result;
+    }
+
+    // Giá trị nhỏ hơn = đứng trước
+    private long sortValue(Table t, int row, String sort) {
+        long v = switch (sort) {
+            case "price_asc" -> t.finalPriceMinor[row];
+            case "price_desc" -> MAX_SORT_VALUE - t.finalPriceMinor[row];
+            case "best_selling" -> MAX_SORT_VALUE - t.soldCount[row];
+            // Điểm trung bình x1000 ở phần cao, số lượt đánh giá ở phần thấp (cùng điểm thì nhiều lượt đứng trước)
+            case "top_rated" -> MAX_SORT_VALUE - (averageMilli(t, row) << 24 | Math.min(t.ratingCount[row], 0xFFFFFF));
+            default -> MAX_SORT_VALUE - t.createdAt[row];
+        };
+        return Math.max(0, Math.min(v, MAX_SORT_VALUE));
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= heap[i]) return;
+            long tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int largest = i, left = 2 * i + 1, right = left + 1;
+            if (left < size && heap[left] > heap[largest]) largest = left;
+            if (right < size && heap[right] > heap[largest]) largest = right;
+            if (largest == i) return;
+            long tmp = heap[largest];
+            heap[largest] = heap[i];
+            heap[i] = tmp;
+            i = largest;
+        }
+    }
+
+    private CatalogItemDTO toItem(Table t, int row) {
+        return new CatalogItemDTO(t.productIds[row], t.names[row], t.imageUrls[row],
+                BigDecimal.valueOf(t.priceMinor[row], PriceQuote.SCALE),
+                BigDecimal.valueOf(t.discountBps[row], 2),
+                BigDecimal.valueOf(t.finalPriceMinor[row], PriceQuote.SCALE),
+                t.quantity[row], t.soldCount[row], t.dimensions[CATEGORY].valueOf(row),
+                t.ratingCount[row], Math.round(averageMilli(t, row) / 100.0) / 10.0);
+    }
+
+    private static long averageMilli(Table t, int row) {
+        return t.ratingCount[row] == 0 ? 0 : t.ratingSum[row] * 1000 / t.ratingCount[row];
+    }
+
+    private static int priceBand(long finalPriceMinor) {
+        long dong = finalPriceMinor / 100;
+        int band = 0;
+        while (band < PRICE_BAND_BOUNDS.length && dong >= PRICE_BAND_BOUNDS[band]) band++;
+        return band;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        if (amount == null) return 0L;
+        return amount.setScale(PriceQuote.SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
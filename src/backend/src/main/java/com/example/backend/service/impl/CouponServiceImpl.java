@@ -4,10 +4,12 @@ import com.example.backend.model.Coupon;
 import com.example.backend.repository.CouponRepository;
 import com.example.backend.service.CouponService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -39,6 +41,10 @@ public class CouponServiceImpl implements CouponService {
     @Override
     public Coupon updateCoupon(Integer id, Coupon coupon) {
         return couponRepository.findById(id).map(existingCoupon -> {
+            // Form phải gửi version lúc tải; mã đã đổi từ đó -> xung đột, admin tải lại
+            if (!Objects.equals(coupon.getVersion(), existingCoupon.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Coupon.class, id);
+            }
             existingCoupon.setCode(coupon.getCode());
             existingCoupon.setDescription(coupon.getDescription());
             existingCoupon.setDiscountType(coupon.getDiscountType());
@@ -48,7 +54,7 @@ public class CouponServiceImpl implements CouponService {
             existingCoupon.setStartDate(coupon.getStartDate());
             existingCoupon.setEndDate(coupon.getEndDate());
             existingCoupon.setUsageLimit(coupon.getUsageLimit());
-            existingCoupon.setUsedCount(coupon.getUsedCount());
+            // usedCount do checkout cộng, không lấy từ form
             existingCoupon.setIsActive(coupon.getIsActive());
             return couponRepository.save(existingCoupon);
         }).orElseThrow(() -> new RuntimeException("Coupon not found with id " + id));
@@ -24,7 +24,8 @@ public class EmailServiceImpl implements EmailService {
     @Async // Gửi email bất đồng bộ để không làm chậm phản hồi API
     public void sendInvoiceEmail(String orderId, String toEmail) {
         try {
-            Order order = orderRepository.findById(orderId)
+            // Chạy @Async ngoài request/transaction: phải lấy sẵn dòng hàng + sản phẩm
+            Order order = orderRepository.findWithLinesByOrderId(orderId)
                     .orElseThrow(() -> new RuntimeException("Order not found"));
 
             MimeMessage message = mailSender.createMimeMessage();
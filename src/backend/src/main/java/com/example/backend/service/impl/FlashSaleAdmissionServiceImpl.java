@@ -0,0 +1,230 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.FlashSaleAdmissionDTO;
+import com.example.backend.DTO.FlashSaleDTO;
+import com.example.backend.DTO.FlashSaleItemDTO;
+import com.example.backend.service.FlashSaleAdmissionService;
+import com.example.backend.service.FlashSaleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Cổng vào thanh toán Flash Sale: chặn sớm trước khi chạm tới transaction MySQL.
+// - Hết suất: từ chối ngay dựa trên snapshot trong bộ nhớ.
+// - Token bucket theo user: chống spam bấm liên tục.
+// - Token bucket theo đợt sale: giới hạn số lượt checkout/giây; vượt burst thì xếp vào phòng chờ
+//   và cấp vé đã ký (HMAC) ghi thời điểm được vào, client quay lại đúng giờ với vé đó.
+@Service
+public class FlashSaleAdmissionServiceImpl implements FlashSaleAdmissionService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Value("${flashsale.admission.rate-per-sec:50}")
+    private int saleRatePerSec;
+
+    @Value("${flashsale.admission.burst:20}")
+    private int saleBurst;
+
+    @Value("${flashsale.admission.max-waiting:5000}")
+    private int maxWaiting;
+
+    @Value("${flashsale.admission.user-interval-ms:2000}")
+    private long userIntervalMs;
+
+    @Value("${flashsale.admission.user-burst:3}")
+    private int userBurst;
+
+    @Value("${flashsale.admission.ticket-ttl-ms:30000}")
+    private long ticketTtlMs;
+
+    // Để trống thì sinh khóa ngẫu nhiên lúc khởi động (vé chỉ hợp lệ trên node đã cấp)
+    @Value("${flashsale.admission.secret:}")
+    private String secret;
+
+    private byte[] signingKey;
+
+    private final Map<Integer, TokenBucket> saleBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    // Chữ ký vé đã dùng -> hạn vé, tránh dùng lại 1 vé cho nhiều đơn
+    private final Map<String, Long> usedTickets = new ConcurrentHashMap<>();
+
+    @Override
+    public FlashSaleAdmissionDTO admit(String userId, Map<String, Integer> flashQuantities, String ticket) {
+        if (flashQuantities == null || flashQuantities.isEmpty()) {
+            return FlashSaleAdmissionDTO.admitted();
+        }
+        FlashSaleDTO sale = flashSaleService.getCurrentFlashSaleSnapshot().sale();
+        if (sale == null || sale.getItems() == null) {
+            // Không có đợt sale đang chạy -> để OrderService báo lỗi như cũ
+            return FlashSaleAdmissionDTO.admitted();
+        }
+
+        // 1. Hết suất -> từ chối ngay, không xếp hàng
+        String soldOut = findSoldOutProduct(sale, flashQuantities);
+        if (soldOut != null) {
+            return FlashSaleAdmissionDTO.soldOut("Sản phẩm " + soldOut + " đã hết suất Flash Sale!");
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, saleRatePerSec);
+
+        // 2. Có vé hợp lệ -> chỗ đã được giữ lúc cấp vé, không trừ token lần nữa
+        Ticket parsed = ticket != null && !ticket.isBlank() ? verify(ticket) : null;
+        if (parsed != null && parsed.userId().equals(userId)
+                && parsed.flashSaleId().equals(sale.getFlashSaleId()) && nowMillis < parsed.expiresAt()) {
+            if (nowMillis < parsed.notBefore()) {
+                long etaMs = parsed.notBefore() - nowMillis;
+                return FlashSaleAdmissionDTO.waiting(ticket, positionOf(TimeUnit.MILLISECONDS.toNanos(etaMs), intervalNanos), etaMs);
+            }
+            if (usedTickets.putIfAbsent(parsed.signature(), parsed.expiresAt()) == null) {
+                return FlashSaleAdmissionDTO.admitted();
+            }
+        }
+
+        // 3. Giới hạn theo user
+        long now = System.nanoTime();
+        TokenBucket userBucket = userBuckets.computeIfAbsent(userId,
+                id -> new TokenBucket(TimeUnit.MILLISECONDS.toNanos(userIntervalMs), userBurst, now));
+        if (userBucket.reserve(now, 0) < 0) {
+            return FlashSaleAdmissionDTO.rateLimited("Bạn thao tác quá nhanh, vui lòng thử lại sau giây lát");
+        }
+
+        // 4. Giới hạn theo đợt sale: còn token thì vào ngay, hết thì giữ chỗ trong phòng chờ
+        TokenBucket saleBucket = saleBuckets.computeIfAbsent(sale.getFlashSaleId(),
+                id -> new TokenBucket(intervalNanos, saleBurst, now));
+        long waitNanos = saleBucket.reserve(now, maxWaiting * intervalNanos);
+        if (waitNanos < 0) {
+            return FlashSaleAdmissionDTO.rateLimited("Phòng chờ Flash Sale đã đầy, vui lòng thử lại sau");
+        }
+        if (waitNanos == 0) {
+            return FlashSaleAdmissionDTO.admitted();
+        }
+        long etaMs = TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1;
+        long notBefore = nowMillis + etaMs;
+        String issued = sign(userId, sale.getFlashSaleId(), notBefore, notBefore + ticketTtlMs);
+        return FlashSaleAdmissionDTO.waiting(issued, positionOf(waitNanos, intervalNanos), etaMs);
+    }
+
+    // Dọn vé đã hết hạn và bucket của user/đợt sale không còn hoạt động
+    @Scheduled(fixedDelayString = "${flashsale.admission.cleanup-ms:60000}")
+    public void evictExpired() {
+        long nowMillis = System.currentTimeMillis();
+        usedTickets.values().removeIf(expiresAt -> expiresAt < nowMillis);
+
+        long idleBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(1);
+        userBuckets.values().removeIf(bucket -> bucket.isIdleSince(idleBefore));
+
+        FlashSaleDTO sale = flashSaleService.getCurrentFlashSaleSnapshot().sale();
+        saleBuckets.keySet().removeIf(id -> sale == null || !id.equals(sale.getFlashSaleId()));
+    }
+
+    private String findSoldOutProduct(FlashSaleDTO sale, Map<String, Integer> flashQuantities) {
+        for (FlashSaleItemDTO item : sale.getItems()) {
+            Integer requested = flashQuantities.get(item.getProductId());
+            if (requested != null && item.getQuantity() - item.getSoldCount() < requested) {
+                return item.getProductName();
+            }
+        }
+        return null;
+    }
+
+    private long positionOf(long waitNanos, long intervalNanos) {
+        return (waitNanos + intervalNanos - 1) / intervalNanos;
+    }
+
+    // --- VÉ PHÒNG CHỜ: base64url(userId|flashSaleId|notBefore|expiresAt).hmac ---
+
+    private record Ticket(String userId, Integer flashSaleId, long notBefore, long expiresAt, String signature) {
+    }
+
+    private String sign(String userId, Integer flashSaleId, long notBefore, long expiresAt) {
+        String payload = userId + "|" + flashSaleId + "|" + notBefore + "|" + expiresAt;
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + hmac(encoded);
+    }
+
+    private Ticket verify(String ticket) {
+        int dot = ticket.lastIndexOf('.');
+        if (dot <= 0) return null;
+        String encoded = ticket.substring(0, dot);
+        String signature = ticket.substring(dot + 1);
+        if (!MessageDigest.isEqual(hmac(encoded).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4) return null;
+            return new Ticket(parts[0], Integer.valueOf(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]), signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String hmac(String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey(), HMAC_ALGORITHM));
+            byte[] bytes = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Không thể ký vé Flash Sale", e);
+        }
+    }
+
+    private synchronized byte[] signingKey() {
+        if (signingKey == null) {
+            if (secret != null && !secret.isBlank()) {
+                signingKey = secret.getBytes(StandardCharsets.UTF_8);
+            } else {
+                signingKey = new byte[32];
+                new SecureRandom().nextBytes(signingKey);
+            }
+        }
+        return signingKey;
+    }
+
+    // Token bucket dạng GCRA: chỉ lưu "thời điểm đến lý thuyết" (tat), không cần luồng nạp token.
+    // Cho phép tối đa `burst` lượt dồn cùng lúc, sau đó đều đặn 1 lượt mỗi interval.
+    private static final class TokenBucket {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private long tat;
+
+        TokenBucket(long intervalNanos, int burst, long now) {
+            this.intervalNanos = intervalNanos;
+            this.toleranceNanos = Math.max(0, burst - 1) * intervalNanos;
+            this.tat = now;
+        }
+
+        // Trả về thời gian phải chờ (0 = vào ngay), hoặc -1 nếu phải chờ quá maxWaitNanos (không giữ chỗ)
+        synchronized long reserve(long now, long maxWaitNanos) {
+            long start = Math.max(tat, now);
+            long wait = Math.max(0, start - toleranceNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            tat = start + intervalNanos;
+            return wait;
+        }
+
+        synchronized boolean isIdleSince(long nanos) {
+            return tat < nanos;
+        }
+    }
+}
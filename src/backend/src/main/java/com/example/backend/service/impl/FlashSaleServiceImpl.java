@@ -1,7 +1,12 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.DTO.FlashSaleAllocation;
 import com.example.backend.DTO.FlashSaleDTO;
 import com.example.backend.DTO.FlashSaleItemDTO;
+import com.example.backend.DTO.FlashSaleSnapshot;
+import com.example.backend.component.FlashSaleStockBroadcaster;
+import com.example.backend.event.FlashSaleChangedEvent;
+import com.example.backend.event.ProductChangedEvent;
 import com.example.backend.model.FlashSale;
 import com.example.backend.model.FlashSaleItem;
 import com.example.backend.model.Product;
@@ -10,14 +15,21 @@ import com.example.backend.repository.FlashSaleRepository;
 import com.example.backend.repository.ProductRepository;
 import com.example.backend.service.FlashSaleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +41,16 @@ public class FlashSaleServiceImpl implements FlashSaleService {
     private FlashSaleItemRepository flashSaleItemRepository;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private FlashSaleStockBroadcaster stockBroadcaster;
+
+    // Snapshot Flash Sale đang chạy (phục vụ /current), thay thế nguyên khối khi có thay đổi
+    private final AtomicReference<FlashSaleSnapshot> currentSnapshot = new AtomicReference<>();
+    // Snapshot dựng sẵn lúc warm-up cho đợt sắp mở
+    private volatile FlashSaleSnapshot preparedSnapshot;
+    private final AtomicLong snapshotVersion = new AtomicLong();
 
     @Override
     public List<FlashSaleDTO> getAllFlashSales() {
@@ -47,6 +69,7 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         flashSale.setEndDate(dto.getEndDate());
         flashSale.setStatus(FlashSale.Status.Inactive);
         FlashSale saved = flashSaleRepository.save(flashSale);
+        eventPublisher.publishEvent(new FlashSaleChangedEvent(saved.getFlashSaleId()));
         return mapToDTO(saved);
     }
 
@@ -59,14 +82,195 @@ public class FlashSaleServiceImpl implements FlashSaleService {
 
     @Override
     public FlashSaleDTO getCurrentFlashSale() {
-        return flashSaleRepository.findCurrentActiveFlashSale(LocalDateTime.now())
-                .map(this::mapToDTO)
-                .orElse(null);
+        return getCurrentFlashSaleSnapshot().sale();
+    }
+
+    @Override
+    public FlashSaleSnapshot getCurrentFlashSaleSnapshot() {
+        FlashSaleSnapshot snapshot = currentSnapshot.get();
+        if (snapshot == null || isExpired(snapshot)) {
+            return refreshIfStale();
+        }
+        return snapshot;
+    }
+
+    // Nhiều request cùng thấy snapshot hết hạn: chỉ request vào khóa đầu tiên đọc DB,
+    // các request chờ sau kiểm tra lại và dùng luôn snapshot vừa dựng
+    private synchronized FlashSaleSnapshot refreshIfStale() {
+        FlashSaleSnapshot snapshot = currentSnapshot.get();
+        if (snapshot != null && !isExpired(snapshot)) {
+            return snapshot;
+        }
+        return refreshCurrentFlashSale();
+    }
+
+    @Override
+    public synchronized FlashSaleSnapshot refreshCurrentFlashSale() {
+        FlashSale sale = flashSaleRepository.findCurrentActiveFlashSale(LocalDateTime.now()).orElse(null);
+
+        FlashSaleSnapshot prepared = preparedSnapshot;
+        FlashSaleSnapshot next;
+        if (sale != null && prepared != null && prepared.sale() != null
+                && sale.getFlashSaleId().equals(prepared.sale().getFlashSaleId())) {
+            // Đã dựng sẵn lúc warm-up -> chỉ cần cập nhật trạng thái
+            FlashSaleDTO dto = copyOf(prepared.sale());
+            dto.setStatus(sale.getStatus());
+            next = new FlashSaleSnapshot(dto, nextEtag(sale.getFlashSaleId()));
+            preparedSnapshot = null;
+        } else {
+            next = buildSnapshot(sale);
+        }
+        currentSnapshot.set(next);
+        return next;
+    }
+
+    // Admin tạo/sửa/xóa đợt sale -> bỏ bản dựng sẵn và dựng lại snapshot hiện tại
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlashSaleChanged(FlashSaleChangedEvent event) {
+        preparedSnapshot = null;
+        refreshCurrentFlashSale();
+    }
+
+    // Sửa tên/ảnh/giá gốc của sản phẩm đang trong đợt sale -> snapshot chứa thông tin cũ, dựng lại
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        FlashSaleSnapshot prepared = preparedSnapshot;
+        if (containsProduct(prepared, event.productId())) {
+            preparedSnapshot = null;
+        }
+        if (containsProduct(currentSnapshot.get(), event.productId())) {
+            refreshCurrentFlashSale();
+        }
+    }
+
+    private static boolean containsProduct(FlashSaleSnapshot snapshot, String productId) {
+        if (snapshot == null || snapshot.sale() == null || snapshot.sale().getItems() == null) return false;
+        return snapshot.sale().getItems().stream().anyMatch(item -> productId.equals(item.getProductId()));
+    }
+
+    private boolean isExpired(FlashSaleSnapshot snapshot) {
+        return snapshot.sale() != null && snapshot.sale().getEndDate() != null
+                && LocalDateTime.now().isAfter(snapshot.sale().getEndDate());
+    }
+
+    private FlashSaleSnapshot buildSnapshot(FlashSale sale) {
+        if (sale == null) {
+            return new FlashSaleSnapshot(null, nextEtag(null));
+        }
+        FlashSaleDTO dto = new FlashSaleDTO();
+        dto.setFlashSaleId(sale.getFlashSaleId());
+        dto.setName(sale.getName());
+        dto.setDescription(sale.getDescription());
+        dto.setStartDate(sale.getStartDate());
+        dto.setEndDate(sale.getEndDate());
+        dto.setStatus(sale.getStatus());
+        // Item + Product trong 1 query, không lazy load từng item
+        dto.setItems(flashSaleItemRepository.findWithProductByFlashSaleId(sale.getFlashSaleId()).stream()
+                .map(this::mapItemToDTO)
+                .collect(Collectors.toList()));
+        return new FlashSaleSnapshot(dto, nextEtag(sale.getFlashSaleId()));
+    }
+
+    private FlashSaleItemDTO mapItemToDTO(FlashSaleItem item) {
+        FlashSaleItemDTO idto = new FlashSaleItemDTO();
+        idto.setFlashSaleItemId(item.getFlashSaleItemId());
+        idto.setProductId(item.getProduct().getProductId());
+        idto.setProductName(item.getProduct().getProductName());
+        idto.setProductImageUrl(item.getProduct().getImageUrl());
+        idto.setOriginalPrice(item.getProduct().getPrice());
+        idto.setFlashSalePrice(item.getFlashSalePrice());
+        idto.setQuantity(item.getQuantity());
+        idto.setSoldCount(item.getSoldCount());
+        idto.setVersion(item.getVersion());
+        return idto;
+    }
+
+    private String nextEtag(Integer flashSaleId) {
+        return "fs-" + (flashSaleId != null ? flashSaleId : "none") + "-" + snapshotVersion.incrementAndGet();
+    }
+
+    private FlashSaleDTO copyOf(FlashSaleDTO source) {
+        FlashSaleDTO dto = new FlashSaleDTO();
+        dto.setFlashSaleId(source.getFlashSaleId());
+        dto.setName(source.getName());
+        dto.setDescription(source.getDescription());
+        dto.setStartDate(source.getStartDate());
+        dto.setEndDate(source.getEndDate());
+        dto.setStatus(source.getStatus());
+        dto.setItems(source.getItems());
+        return dto;
+    }
+
+    // Ghi số suất đã bán (giá trị tuyệt đối của dòng vừa commit) vào snapshot; rollback thì không đổi.
+    // Không cộng delta: snapshot có thể đã được dựng lại từ DB sau commit này, hoặc instance khác cũng bán,
+    // cộng dồn sẽ đếm trùng / bỏ sót. Thứ tự giữa các commit xác định bằng @Version của dòng.
+    private void applySoldCountAfterCommit(FlashSaleItem item, Integer flashSaleId, String productId) {
+        Runnable apply = () -> {
+            // Đọc trong afterCommit: version và soldCount lúc này là giá trị đã flush xuống DB
+            long version = item.getVersion();
+            int soldCount = item.getSoldCount();
+            boolean[] applied = {false};
+            currentSnapshot.updateAndGet(s -> {
+                applied[0] = false;
+                FlashSaleSnapshot next = withSoldCount(s, flashSaleId, productId, soldCount, version);
+                applied[0] = next != s;
+                return next;
+            });
+            // Gửi trạng thái tuyệt đối (không phải delta) để client lỡ 1 lô vẫn hiển thị đúng
+            if (applied[0]) {
+                stockBroadcaster.publish(flashSaleId, productId, soldCount, item.getQuantity());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Trả về nguyên snapshot cũ nếu không thuộc đợt này hoặc snapshot đã có bản cùng/ mới hơn version
+    private FlashSaleSnapshot withSoldCount(FlashSaleSnapshot snapshot, Integer flashSaleId, String productId,
+                                            int soldCount, long version) {
+        if (snapshot == null || snapshot.sale() == null || !snapshot.sale().getFlashSaleId().equals(flashSaleId)) {
+            return snapshot;
+        }
+        boolean newer = snapshot.sale().getItems().stream()
+                .anyMatch(i -> i.getProductId().equals(productId)
+                        && (i.getVersion() == null || i.getVersion() < version));
+        if (!newer) {
+            return snapshot;
+        }
+        List<FlashSaleItemDTO> items = new ArrayList<>(snapshot.sale().getItems().size());
+        for (FlashSaleItemDTO item : snapshot.sale().getItems()) {
+            if (item.getProductId().equals(productId)) {
+                FlashSaleItemDTO updated = new FlashSaleItemDTO();
+                updated.setFlashSaleItemId(item.getFlashSaleItemId());
+                updated.setProductId(item.getProductId());
+                updated.setProductName(item.getProductName());
+                updated.setProductImageUrl(item.getProductImageUrl());
+                updated.setOriginalPrice(item.getOriginalPrice());
+                updated.setFlashSalePrice(item.getFlashSalePrice());
+                updated.setQuantity(item.getQuantity());
+                updated.setSoldCount(soldCount);
+                updated.setVersion(version);
+                items.add(updated);
+            } else {
+                items.add(item);
+            }
+        }
+        FlashSaleDTO dto = copyOf(snapshot.sale());
+        dto.setItems(items);
+        return new FlashSaleSnapshot(dto, nextEtag(flashSaleId));
     }
 
     @Override
     @Transactional
-    public boolean deductFlashSaleQuantity(String productId, int quantity) {
+    public FlashSaleAllocation deductFlashSaleQuantity(String productId, int quantity) {
         // 1. Tìm Flash Sale đang chạy
         FlashSale currentFlashSale = flashSaleRepository.findCurrentActiveFlashSale(LocalDateTime.now())
                 .orElseThrow(() -> new RuntimeException("Không có Flash Sale nào đang diễn ra!"));
@@ -87,36 +291,53 @@ public class FlashSaleServiceImpl implements FlashSaleService {
 
         // 5. Lưu ngay lập tức
         flashSaleItemRepository.save(item);
-        return true;
+        applySoldCountAfterCommit(item, currentFlashSale.getFlashSaleId(), productId);
+        return new FlashSaleAllocation(currentFlashSale.getFlashSaleId(), item.getFlashSalePrice());
     }
 
     @Override
     @Transactional
-    public void restoreFlashSaleQuantity(String productId, int quantity) {
-        flashSaleRepository.findCurrentActiveFlashSale(LocalDateTime.now()).ifPresent(sale -> {
-            flashSaleItemRepository.findByFlashSaleAndProduct_ProductId(sale, productId).ifPresent(item -> {
-                item.setSoldCount(Math.max(0, item.getSoldCount() - quantity));
-                flashSaleItemRepository.save(item);
-            });
-        });
+    public void restoreFlashSaleQuantities(Integer flashSaleId, Map<String, Integer> quantities) {
+        if (flashSaleId == null || quantities.isEmpty()) return;
+        // Nạp tất cả item của đơn trong 1 query, ghi lại bằng saveAll
+        List<FlashSaleItem> items = flashSaleItemRepository
+                .findWithProductByFlashSaleIdAndProductIds(flashSaleId, quantities.keySet());
+        for (FlashSaleItem item : items) {
+            String productId = item.getProduct().getProductId();
+            int quantity = quantities.get(productId);
+            item.setSoldCount(Math.max(0, item.getSoldCount() - quantity));
+            applySoldCountAfterCommit(item, flashSaleId, productId);
+        }
+        flashSaleItemRepository.saveAll(items);
     }
 
     @Override
     @Transactional
     public void updateFlashSaleStatus() {
+        // Chỉ xét các đợt chưa kết thúc, và chỉ ghi những đợt thực sự đổi trạng thái
         LocalDateTime now = LocalDateTime.now();
-        List<FlashSale> allSales = flashSaleRepository.findAll();
-        for (FlashSale sale : allSales) {
-            if (sale.getStatus() == FlashSale.Status.Finished) continue;
+        for (FlashSale sale : flashSaleRepository.findByStatusNot(FlashSale.Status.Finished)) {
+            FlashSale.Status target = sale.getStatus();
             if (now.isAfter(sale.getStartDate()) && now.isBefore(sale.getEndDate())) {
-                sale.setStatus(FlashSale.Status.Active);
+                target = FlashSale.Status.Active;
             } else if (now.isAfter(sale.getEndDate())) {
-                sale.setStatus(FlashSale.Status.Finished);
+                target = FlashSale.Status.Finished;
+            }
+            if (target != sale.getStatus()) {
+                sale.setStatus(target);
+                flashSaleRepository.save(sale);
             }
-            flashSaleRepository.save(sale);
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void warmUpFlashSale(Integer flashSaleId) {
+        // Dựng sẵn snapshot cho đợt sắp mở, đến giờ chỉ cần thay vào
+        flashSaleRepository.findById(flashSaleId)
+                .ifPresent(sale -> preparedSnapshot = buildSnapshot(sale));
+    }
+
     private FlashSaleDTO mapToDTO(FlashSale entity) {
         FlashSaleDTO dto = new FlashSaleDTO();
         dto.setFlashSaleId(entity.getFlashSaleId());
@@ -137,15 +358,21 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         return dto;
     }
 
-    @Override public void deleteFlashSale(Integer id) { flashSaleRepository.deleteById(id); }
+    @Override public void deleteFlashSale(Integer id) {
+        flashSaleRepository.deleteById(id);
+        eventPublisher.publishEvent(new FlashSaleChangedEvent(id));
+    }
     @Override public void updateStatus(Integer id, FlashSale.Status status) {
         FlashSale fs = flashSaleRepository.findById(id).orElseThrow();
         fs.setStatus(status); flashSaleRepository.save(fs);
+        eventPublisher.publishEvent(new FlashSaleChangedEvent(id));
     }
     @Override public FlashSaleDTO updateFlashSale(Integer id, FlashSaleDTO dto) {
         FlashSale fs = flashSaleRepository.findById(id).orElseThrow();
         fs.setName(dto.getName()); fs.setStartDate(dto.getStartDate()); fs.setEndDate(dto.getEndDate());
-        return mapToDTO(flashSaleRepository.save(fs));
+        FlashSale saved = flashSaleRepository.save(fs);
+        eventPublisher.publishEvent(new FlashSaleChangedEvent(id));
+        return mapToDTO(saved);
     }
     @Override public FlashSaleDTO addProductToFlashSale(Integer flashSaleId, FlashSaleItemDTO itemDTO) {
         FlashSale fs = flashSaleRepository.findById(flashSaleId).orElseThrow();
@@ -155,6 +382,7 @@ public class FlashSaleServiceImpl implements FlashSaleService {
         item.setFlashSalePrice(itemDTO.getFlashSalePrice());
         item.setQuantity(itemDTO.getQuantity()); item.setSoldCount(0);
         flashSaleItemRepository.save(item);
+        eventPublisher.publishEvent(new FlashSaleChangedEvent(flashSaleId));
         return getFlashSaleById(flashSaleId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.ProductStockDTO;
+import com.example.backend.event.ProductStockChangedEvent;
+import com.example.backend.model.Product;
+import com.example.backend.model.ProductStockShard;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.ProductStockShardRepository;
+import com.example.backend.repository.projection.ShardSummaryProjection;
+import com.example.backend.service.InventoryShardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Tồn kho chia shard cho sản phẩm "nóng".
+// Checkout trừ kho bằng 1 câu UPDATE có điều kiện trên 1 shard chọn ngẫu nhiên, nên chỉ khóa dòng shard đó;
+// dòng products không bị ghi trong lúc checkout mà được rebalance đồng bộ lại định kỳ.
+@Service
+public class InventoryShardServiceImpl implements InventoryShardService {
+
+    @Autowired
+    private ProductStockShardRepository shardRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.shards.max-count:64}")
+    private int maxShardCount;
+
+    // productId -> số shard (không đổi trừ khi bật/tắt lại)
+    private final Map<String, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional
+    public void deduct(String productId, int quantity) {
+        int shards = shardCount(productId);
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Thử từng shard bắt đầu từ vị trí ngẫu nhiên, shard nào đủ hàng thì trừ luôn
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.tryDeduct(productId, (start + i) % shards, quantity, now) == 1) {
+                return;
+            }
+        }
+
+        // 2. Không shard nào đủ 1 mình (thường do lệch sau nhiều lượt bán) -> gom từ nhiều shard
+        int remaining = quantity;
+        for (ProductStockShard shard : shardRepository.findForUpdate(productId)) {
+            int take = Math.min(remaining, shard.getQuantity());
+            if (take <= 0) continue;
+            shard.setQuantity(shard.getQuantity() - take);
+            shard.setSoldDelta(shard.getSoldDelta() + take);
+            shard.setLastSoldAt(now);
+            remaining -= take;
+            if (remaining == 0) return;
+        }
+        // Ném lỗi -> rollback cả các shard vừa trừ ở trên
+        throw new RuntimeException("Kho tổng không đủ hàng cho sản phẩm: " + productId);
+    }
+
+    @Override
+    @Transactional
+    public void restore(String productId, int quantity) {
+        int shardNo = ThreadLocalRandom.current().nextInt(shardCount(productId));
+        shardRepository.restore(productId, shardNo, quantity);
+    }
+
+    @Override
+    @Transactional
+    public void enableSharding(String productId, int shardCount) {
+        if (shardCount < 2 || shardCount > maxShardCount) {
+            throw new RuntimeException("Số shard phải từ 2 đến " + maxShardCount);
+        }
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (product.isStockSharded()) {
+            throw new RuntimeException("Sản phẩm đã bật chia shard tồn kho");
+        }
+
+        int[] split = split(product.getQuantity(), shardCount);
+        List<ProductStockShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ProductStockShard(null, productId, i, split[i], 0L, null));
+        }
+        shardRepository.saveAll(shards);
+        product.setStockSharded(true);
+        productRepository.save(product);
+        shardCounts.put(productId, shardCount);
+    }
+
+    @Override
+    @Transactional
+    public void disableSharding(String productId) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (!product.isStockSharded()) return;
+
+        syncToProduct(product, shardRepository.findForUpdate(productId), null);
+        shardRepository.deleteByProductId(productId);
+        product.setStockSharded(false);
+        productRepository.save(product);
+        shardCounts.remove(productId);
+    }
+
+    @Override
+    @Transactional
+    public void setStock(String productId, int quantity) {
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (!product.isStockSharded()) {
+            product.setQuantity(quantity);
+            productRepository.save(product);
+            return;
+        }
+        syncToProduct(product, shardRepository.findForUpdate(productId), quantity);
+    }
+
+    @Override
+    @Transactional
+    public void rebalance(String productId) {
+        // Không có lượt bán/hoàn nào mới và shard còn đều -> không khóa, không ghi gì
+        // (ghi products mỗi chu kỳ sẽ tăng @Version và làm mất ETag danh sách sản phẩm)
+        ShardSummaryProjection summary = shardRepository.summarize(productId).orElse(null);
+        if (summary == null || !needsFolding(summary)) return;
+
+        Product product = productRepository.findByIdForUpdate(productId).orElse(null);
+        if (product == null || !product.isStockSharded()) return;
+        syncToProduct(product, shardRepository.findForUpdate(productId), null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductStockDTO getStock(String productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (!product.isStockSharded()) {
+            return new ProductStockDTO(productId, false, product.getQuantity(), List.of());
+        }
+        List<Integer> quantities = shardRepository.findByProductIdOrderByShardNo(productId).stream()
+                .map(ProductStockShard::getQuantity)
+                .collect(Collectors.toList());
+        long total = quantities.stream().mapToLong(Integer::longValue).sum();
+        return new ProductStockDTO(productId, true, total, quantities);
+    }
+
+    @Override
+    public List<String> getShardedProductIds() {
+        return shardRepository.findShardedProductIds();
+    }
+
+    // Gom shard về products (quantity, sold_count, last_sold_at) rồi chia đều lại tồn kho.
+    // newTotal != null: admin nhập lại tổng tồn kho.
+    private void syncToProduct(Product product, List<ProductStockShard> shards, Integer newTotal) {
+        int total = 0;
+        long sold = 0;
+        LocalDateTime lastSoldAt = product.getLastSoldAt();
+        for (ProductStockShard shard : shards) {
+            total += shard.getQuantity();
+            sold += shard.getSoldDelta();
+            if (shard.getLastSoldAt() != null && (lastSoldAt == null || shard.getLastSoldAt().isAfter(lastSoldAt))) {
+                lastSoldAt = shard.getLastSoldAt();
+            }
+        }
+        if (newTotal != null) total = newTotal;
+
+        int[] split = split(total, shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setQuantity(split[i]);
+            shards.get(i).setSoldDelta(0L);
+        }
+        // Chỉ gán khi giá trị đổi để dirty checking không sinh UPDATE products thừa
+        boolean stockChanged = product.getQuantity() != total || sold != 0;
+        if (product.getQuantity() != total) {
+            product.setQuantity(total);
+        }
+        if (sold != 0) {
+            product.setSoldCount(Math.max(0L, product.getSoldCount() + sold));
+        }
+        // Các lượt trừ/hoàn trên shard chỉ hiện ra ở dòng products từ lúc này: báo catalog đọc lại sau khi commit
+        if (stockChanged) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(product.getProductId()));
+        }
+        if (!Objects.equals(lastSoldAt, product.getLastSoldAt())) {
+            product.setLastSoldAt(lastSoldAt);
+        }
+    }
+
+    private static boolean needsFolding(ShardSummaryProjection summary) {
+        return summary.getTotalSoldDelta() != 0
+                || summary.getProductQuantity().longValue() != summary.getTotalQuantity()
+                || summary.getMaxQuantity() - summary.getMinQuantity() > 1;
+    }
+
+    private int shardCount(String productId) {
+        return shardCounts.computeIfAbsent(productId, id -> {
+            int count = shardRepository.findByProductIdOrderByShardNo(id).size();
+            if (count == 0) throw new RuntimeException("Sản phẩm chưa bật chia shard tồn kho: " + id);
+            return count;
+        });
+    }
+
+    // Chia đều total cho n shard, phần dư dồn vào các shard đầu
+    private static int[] split(int total, int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = total / n + (i < total % n ? 1 : 0);
+        }
+        return result;
+    }
+}
@@ -5,9 +5,8 @@ import com.example.backend.repository.OrderDetailRepository;
 import com.example.backend.repository.OrderRepository;
 import com.example.backend.service.OrderDetailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.example.backend.util.IdGenerator;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -42,8 +41,7 @@ public class OrderDetailServiceImpl implements OrderDetailService {
     }
 
     private String generateOrderDetailId() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
-        return "DH" + LocalDateTime.now().format(formatter);
+        return IdGenerator.nextId("DH");
     }
 
     @Override
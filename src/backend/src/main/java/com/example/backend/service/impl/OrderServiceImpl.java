@@ -1,19 +1,29 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.DTO.FlashSaleAllocation;
 import com.example.backend.DTO.OrderDTO;
 import com.example.backend.DTO.OrderReplaceRequest;
+import com.example.backend.DTO.PriceQuote;
+import com.example.backend.event.OrderPlacedEvent;
+import com.example.backend.event.ProductStockChangedEvent;
 import com.example.backend.model.*;
 import com.example.backend.repository.*;
 import com.example.backend.service.FlashSaleService;
+import com.example.backend.service.InventoryShardService;
 import com.example.backend.service.OrderService;
+import com.example.backend.service.PricingService;
+import com.example.backend.service.SalesStatsService;
+import com.example.backend.util.IdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +35,10 @@ public class OrderServiceImpl implements OrderService {
     private final PaymentRepository paymentRepository;
     private final CouponRepository couponRepository;
     private final FlashSaleService flashSaleService;
+    private final SalesStatsService salesStatsService;
+    private final PricingService pricingService;
+    private final InventoryShardService inventoryShardService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public OrderServiceImpl(OrderRepository orderRepository,
@@ -32,13 +46,21 @@ public class OrderServiceImpl implements OrderService {
                             OrderDetailRepository orderDetailRepository,
                             PaymentRepository paymentRepository,
                             CouponRepository couponRepository,
-                            FlashSaleService flashSaleService) {
+                            FlashSaleService flashSaleService,
+                            SalesStatsService salesStatsService,
+                            PricingService pricingService,
+                            InventoryShardService inventoryShardService,
+                            ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.orderDetailRepository = orderDetailRepository;
         this.paymentRepository = paymentRepository;
         this.couponRepository = couponRepository;
         this.flashSaleService = flashSaleService;
+        this.salesStatsService = salesStatsService;
+        this.pricingService = pricingService;
+        this.inventoryShardService = inventoryShardService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -60,21 +82,37 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.delete(order);
     }
 
-    private void handleStockUpdate(Product product, int quantity, Integer isFlashSaleFlag) {
+    // Trừ kho; nếu là dòng Flash Sale thì trả về đợt sale + giá đã áp dụng để lưu vào order_details
+    private FlashSaleAllocation handleStockUpdate(Product product, int quantity, Integer isFlashSaleFlag) {
         // A. Xử lý Flash Sale (Dựa vào cờ transient từ Frontend)
+        FlashSaleAllocation allocation = null;
         if (isFlashSaleFlag != null && isFlashSaleFlag == 1) {
-            boolean success = flashSaleService.deductFlashSaleQuantity(product.getProductId(), quantity);
-            if (!success) {
-                throw new RuntimeException("Lỗi cập nhật suất Flash Sale cho sản phẩm: " + product.getProductName());
-            }
+            allocation = flashSaleService.deductFlashSaleQuantity(product.getProductId(), quantity);
+        }
+
+        // B. Sản phẩm chia shard: trừ trên 1 shard, không ghi dòng products (tránh tranh chấp khóa)
+        if (product.isStockSharded()) {
+            inventoryShardService.deduct(product.getProductId(), quantity);
+            return allocation;
         }
 
-        // B. Xử lý Kho Tổng (Product)
+        // C. Xử lý Kho Tổng (Product)
         if (product.getQuantity() < quantity) {
             throw new RuntimeException("Kho tổng không đủ hàng cho: " + product.getProductName());
         }
         product.setQuantity(product.getQuantity() - quantity);
+        product.setLastSoldAt(LocalDateTime.now());
         productRepository.save(product);
+        // Bộ lọc "còn hàng" / sắp xếp bán chạy của catalog đọc lại dòng này sau khi commit
+        eventPublisher.publishEvent(new ProductStockChangedEvent(product.getProductId()));
+        return allocation;
+    }
+
+    private void applyFlashSaleAllocation(OrderDetail detail, FlashSaleAllocation allocation) {
+        if (allocation != null) {
+            detail.setFlashSaleId(allocation.flashSaleId());
+            detail.setFlashSalePrice(allocation.flashSalePrice());
+        }
     }
 
     @Override
@@ -87,7 +125,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Order getOrderById(String orderId) {
-        return orderRepository.findById(orderId)
+        return orderRepository.findDetailedByOrderId(orderId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng với mã: " + orderId));
     }
 
@@ -95,13 +133,10 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     public Order createOrder(Order order) {
         order.setOrderId(generateOrderId());
+        order.markNew();
         order.setOrderDate(LocalDateTime.now());
         if (order.getOrderStatus() == null) order.setOrderStatus("Pending");
 
-        if (Boolean.TRUE.equals(order.getIsOrder()) && order.getCouponId() != null) {
-            processCouponUsage(order.getCouponId());
-        }
-
         if (order.getOrderDetails() != null) {
             for (OrderDetail detail : order.getOrderDetails()) {
                 Product product = productRepository.findById(detail.getProduct().getProductId())
@@ -109,7 +144,8 @@ public class OrderServiceImpl implements OrderService {
 
                 // CASE 1: MUA NGAY (IsOrder = true) -> TRỪ KHO
                 if (Boolean.TRUE.equals(order.getIsOrder())) {
-                    handleStockUpdate(product, detail.getQuantity(), detail.getIsFlashSale());
+                    applyFlashSaleAllocation(detail,
+                            handleStockUpdate(product, detail.getQuantity(), detail.getIsFlashSale()));
                 }
                 // CASE 2: THÊM GIỎ HÀNG (IsOrder = false) -> KHÔNG TRỪ KHO, CHỈ CHECK
                 else {
@@ -130,7 +166,14 @@ public class OrderServiceImpl implements OrderService {
                 detail.setOrder(order);
             }
         }
-        return orderRepository.save(order);
+        if (Boolean.TRUE.equals(order.getIsOrder()) && order.getOrderDetails() != null) {
+            applyServerPricing(order, order.getOrderDetails(), order.getCouponId());
+        }
+        Order saved = orderRepository.save(order);
+        if (Boolean.TRUE.equals(saved.getIsOrder())) {
+            recordOrderPlaced(saved);
+        }
+        return saved;
     }
 
     @Override
@@ -145,19 +188,15 @@ public class OrderServiceImpl implements OrderService {
         // 2. Tạo đơn hàng mới
         Order order = new Order();
         order.setOrderId(generateOrderId());
+        order.markNew();
         order.setOrderDate(LocalDateTime.now());
         order.setOrderStatus("Pending");
         order.setUserId(req.getUserId());
         order.setShippingAddress(req.getShippingAddress());
         order.setCustomerNote(req.getCustomerNote());
-        order.setTotalAmount(req.getTotalAmount());
         order.setIsOrder(true); // Đây là đơn thật
         order.setCouponId(req.getCouponId());
 
-        if (req.getCouponId() != null) {
-            processCouponUsage(req.getCouponId());
-        }
-
         // 3. Xử lý chi tiết đơn hàng & Trừ kho
         List<OrderDetail> details = req.getOrderDetails().stream().map(d -> {
             OrderDetail od = new OrderDetail();
@@ -166,18 +205,19 @@ public class OrderServiceImpl implements OrderService {
 
             // [QUAN TRỌNG] GỌI HÀM TRỪ KHO TẠI ĐÂY
             // d.getIsFlashSale() sẽ lấy giá trị từ JSON Frontend
-            handleStockUpdate(product, d.getQuantity(), d.getIsFlashSale());
+            applyFlashSaleAllocation(od, handleStockUpdate(product, d.getQuantity(), d.getIsFlashSale()));
 
             od.setProduct(product);
             od.setQuantity(d.getQuantity());
-            od.setUnitPrice(d.getUnitPrice());
-            od.setOriginalUnitPrice(d.getOriginalUnitPrice());
             od.setOrder(order);
             return od;
         }).collect(Collectors.toList());
 
+        applyServerPricing(order, details, req.getCouponId());
         order.setOrderDetails(details);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        recordOrderPlaced(saved);
+        return saved;
     }
 
     @Override
@@ -192,18 +232,15 @@ public class OrderServiceImpl implements OrderService {
 
         Order newOrder = new Order();
         newOrder.setOrderId(generateOrderId());
+        newOrder.markNew();
         newOrder.setUserId(userId);
         newOrder.setShippingAddress(order.getShippingAddress());
         newOrder.setCustomerNote(order.getCustomerNote());
-        newOrder.setTotalAmount(order.getTotalAmount());
         newOrder.setOrderStatus("Pending");
         newOrder.setOrderDate(LocalDateTime.now());
         newOrder.setIsOrder(true);
 
-        if (order.getCouponId() != null) {
-            newOrder.setCouponId(order.getCouponId());
-            processCouponUsage(order.getCouponId());
-        }
+        newOrder.setCouponId(order.getCouponId());
 
         List<OrderDetail> newDetails = order.getOrderDetails().stream().map(od -> {
             OrderDetail detail = new OrderDetail();
@@ -211,23 +248,36 @@ public class OrderServiceImpl implements OrderService {
                     .orElseThrow(() -> new RuntimeException("Sản phẩm không tồn tại"));
 
             // Xử lý kho
-            handleStockUpdate(product, od.getQuantity(), od.getIsFlashSale());
+            applyFlashSaleAllocation(detail, handleStockUpdate(product, od.getQuantity(), od.getIsFlashSale()));
 
             detail.setProduct(product);
             detail.setQuantity(od.getQuantity());
-            detail.setUnitPrice(od.getUnitPrice());
             detail.setOrder(newOrder);
             return detail;
         }).collect(Collectors.toList());
 
+        applyServerPricing(newOrder, newDetails, order.getCouponId());
         newOrder.setOrderDetails(newDetails);
-        return orderRepository.save(newOrder);
+        Order saved = orderRepository.save(newOrder);
+        recordOrderPlaced(saved);
+        return saved;
+    }
+
+    // Cập nhật thống kê bán hàng + báo cho các mô hình gợi ý (chạy sau khi commit)
+    private void recordOrderPlaced(Order saved) {
+        salesStatsService.recordOrderPlaced(saved);
+        if (saved.getOrderDetails() != null) {
+            List<String> productIds = saved.getOrderDetails().stream()
+                    .map(d -> d.getProduct().getProductId())
+                    .collect(Collectors.toList());
+            eventPublisher.publishEvent(new OrderPlacedEvent(saved.getOrderId(), saved.getUserId(), productIds));
+        }
     }
 
     @Override
     @Transactional
     public void cancelOrder(String orderId, String reason) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithLinesByOrderId(orderId)
                 .orElseThrow(() -> new RuntimeException("Đơn hàng không tồn tại"));
 
         String currentStatus = order.getOrderStatus();
@@ -235,16 +285,29 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Không thể hủy đơn ở trạng thái: " + currentStatus);
         }
 
-        // --- HOÀN KHO TỔNG (Product) ---
+        // --- HOÀN KHO TỔNG (Product) + gom suất Flash Sale cần hoàn theo từng đợt ---
+        Map<Integer, Map<String, Integer>> flashQuantities = new HashMap<>();
         if (order.getOrderDetails() != null) {
             for (OrderDetail detail : order.getOrderDetails()) {
                 Product product = detail.getProduct();
-                product.setQuantity(product.getQuantity() + detail.getQuantity());
-                productRepository.save(product);
+                if (product.isStockSharded()) {
+                    inventoryShardService.restore(product.getProductId(), detail.getQuantity());
+                } else {
+                    product.setQuantity(product.getQuantity() + detail.getQuantity());
+                    productRepository.save(product);
+                    eventPublisher.publishEvent(new ProductStockChangedEvent(product.getProductId()));
+                }
+                if (detail.getFlashSaleId() != null) {
+                    flashQuantities.computeIfAbsent(detail.getFlashSaleId(), id -> new HashMap<>())
+                            .merge(product.getProductId(), detail.getQuantity(), Integer::sum);
+                }
             }
         }
-        // Lưu ý: Chưa hoàn được soldCount Flash Sale do DB chưa lưu flag isFlashSale
-        // Nếu muốn hoàn chuẩn xác, cần thêm cột is_flash_sale vào bảng order_details trong DB.
+        // Trừ lại bộ đếm thống kê bán hàng (top sản phẩm/danh mục, giờ cao điểm)
+        salesStatsService.recordOrderCancelled(order);
+
+        // --- HOÀN SUẤT FLASH SALE (theo đợt sale đã lưu trên order_details) ---
+        flashQuantities.forEach(flashSaleService::restoreFlashSaleQuantities);
 
         // Xử lý hoàn tiền
         Optional<Payment> paymentOpt = paymentRepository.findByOrderOrderId(orderId);
@@ -291,17 +354,33 @@ public class OrderServiceImpl implements OrderService {
     }
 
     // --- Helpers ---
-    private void processCouponUsage(Integer couponId) {
+    // Giá từng dòng và tổng đơn do server tính lại (giá client gửi lên bị bỏ qua).
+    // Gọi sau khi đã trừ kho để dòng Flash Sale dùng đúng giá đã giữ suất.
+    private void applyServerPricing(Order order, List<OrderDetail> details, Integer couponId) {
+        List<PriceQuote.Line> lines = details.stream()
+                .map(d -> new PriceQuote.Line(d.getProduct().getProductId(), d.getQuantity(), d.getFlashSalePrice()))
+                .collect(Collectors.toList());
+        Coupon coupon = couponId != null ? processCouponUsage(couponId) : null;
+
+        PriceQuote quote = pricingService.quote(lines, coupon);
+        for (int i = 0; i < details.size(); i++) {
+            details.get(i).setUnitPrice(quote.unitPrice(i));
+            details.get(i).setOriginalUnitPrice(quote.originalUnitPrice(i));
+        }
+        order.setTotalAmount(quote.totalAmount());
+    }
+
+    private Coupon processCouponUsage(Integer couponId) {
         Coupon coupon = couponRepository.findById(couponId)
                 .orElseThrow(() -> new RuntimeException("Mã giảm giá không tồn tại"));
         LocalDateTime now = LocalDateTime.now();
         if (coupon.getEndDate() != null && now.isAfter(coupon.getEndDate())) throw new RuntimeException("Mã hết hạn");
         if (coupon.getUsageLimit() != null && coupon.getUsedCount() >= coupon.getUsageLimit()) throw new RuntimeException("Mã hết lượt");
         coupon.setUsedCount((coupon.getUsedCount() == null ? 0 : coupon.getUsedCount()) + 1);
-        couponRepository.save(coupon);
+        return couponRepository.save(coupon);
     }
 
     private String generateOrderId() {
-        return "OR" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        return IdGenerator.nextId("OR");
     }
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.OrderPlacedEvent;
+import com.example.backend.repository.OrderDetailRepository;
+import com.example.backend.repository.projection.OrderLineProjection;
+import com.example.backend.service.PersonalRecommendationService;
+import com.example.backend.service.RecommendationService;
+import com.example.backend.util.IntCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Gợi ý cá nhân từ lịch sử mua:
+// - Mỗi người dùng có 1 vector thưa (chỉ số sản phẩm -> số lượng đã mua), nạp 1 lần từ DB rồi cộng dồn theo OrderPlacedEvent
+// - Ứng viên = top-K lân cận (mua cùng / tương tự) của các sản phẩm đã mua, cộng điểm theo mức độ đã mua
+// - Kết quả cache theo người dùng, bị bỏ khi họ đặt đơn mới; người dùng mới dùng danh sách bán chạy tính sẵn
+@Service
+public class PersonalRecommendationServiceImpl implements PersonalRecommendationService {
+
+    // Số kết quả tính sẵn cho mỗi người dùng (endpoint cắt theo limit)
+    private static final int CACHED_SIZE = 50;
+
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Value("${recommendation.personal.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${recommendation.personal.max-users:100000}")
+    private int maxUsers;
+
+    // Đánh số sản phẩm để vector người dùng dùng khóa int thay vì String
+    private final Map<String, Integer> productIndex = new ConcurrentHashMap<>();
+    private final List<String> productIds = new ArrayList<>();
+
+    private final Map<String, IntCounter> userVectors = new ConcurrentHashMap<>();
+    // LRU theo lần xem gần nhất (access-order), mọi truy cập giữ khóa cache.
+    // Quá maxUsers thì bỏ người dùng lâu chưa xem nhất cùng vector của họ, không xóa cả cache
+    private final Map<String, CachedRecommendation> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedRecommendation> eldest) {
+            if (size() <= maxUsers) return false;
+            userVectors.remove(eldest.getKey());
+            return true;
+        }
+    };
+
+    // productIds == null: đã có đơn mới, cần tính lại (vẫn giữ chỗ trong LRU và vector đã cộng dồn)
+    private record CachedRecommendation(List<String> productIds, long expiresAt) {
+    }
+
+    @Override
+    public List<String> recommendFor(String userId, int limit) {
+        if (userId == null) return recommendationService.getPopularProductIds(limit);
+
+        long now = System.currentTimeMillis();
+        CachedRecommendation cached;
+        synchronized (cache) {
+            cached = cache.get(userId);
+        }
+        if (cached == null || cached.productIds() == null || cached.expiresAt() < now) {
+            // Tính ngoài khóa: có thể phải nạp lịch sử mua từ DB
+            cached = new CachedRecommendation(compute(userId), now + ttlMs);
+            synchronized (cache) {
+                cache.put(userId, cached);
+            }
+        }
+        List<String> ids = cached.productIds();
+        return ids.size() <= limit ? ids : ids.subList(0, limit);
+    }
+
+    // Đơn mới: cộng vào vector (nếu đã nạp) và bỏ kết quả cũ -> lần xem sau tính lại
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.userId() == null) return;
+        IntCounter vector = userVectors.get(event.userId());
+        if (vector != null) {
+            synchronized (vector) {
+                for (String productId : event.productIds()) vector.add(indexOf(productId), 1);
+            }
+        }
+        synchronized (cache) {
+            cache.computeIfPresent(event.userId(), (id, c) -> new CachedRecommendation(null, c.expiresAt()));
+        }
+    }
+
+    // Người dùng lâu không quay lại: bỏ vector để bộ nhớ không tăng mãi, lần sau nạp lại từ DB
+    @Scheduled(fixedDelayString = "${recommendation.personal.ttl-ms:600000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Iterator<Map.Entry<String, CachedRecommendation>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, CachedRecommendation> e = it.next();
+                if (e.getValue().expiresAt() < now) {
+                    userVectors.remove(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private List<String> compute(String userId) {
+        IntCounter vector = vectorOf(userId);
+
+        // 1. Cộng điểm ứng viên từ lân cận của từng sản phẩm đã mua (mua nhiều -> ảnh hưởng nhiều, tăng theo log)
+        Map<String, Double> scores = new HashMap<>();
+        Set<String> purchased = new HashSet<>();
+        synchronized (vector) {
+            vector.forEach((idx, quantity) -> {
+                String productId = productIdAt(idx);
+                purchased.add(productId);
+                double weight = Math.log1p(quantity);
+                recommendationService.getNeighbourScores(productId)
+                        .forEach((candidate, score) -> scores.merge(candidate, weight * score, Double::sum));
+            });
+        }
+        purchased.forEach(scores::remove);
+
+        List<String> result = new ArrayList<>(CACHED_SIZE);
+        scores.entrySet().stream()
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                .limit(CACHED_SIZE)
+                .forEach(e -> result.add(e.getKey()));
+
+        // 2. Chưa đủ (ít lịch sử) -> bù bằng sản phẩm bán chạy chưa mua
+        if (result.size() < CACHED_SIZE) {
+            for (String productId : recommendationService.getPopularProductIds(CACHED_SIZE * 2)) {
+                if (result.size() >= CACHED_SIZE) break;
+                if (!scores.containsKey(productId) && !purchased.contains(productId)) result.add(productId);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private IntCounter vectorOf(String userId) {
+        return userVectors.computeIfAbsent(userId, id -> {
+            List<OrderLineProjection> lines = orderDetailRepository.findPurchaseLinesByUserId(id);
+            IntCounter vector = new IntCounter(lines.size());
+            for (OrderLineProjection line : lines) {
+                vector.add(indexOf(line.getProductId()), line.getQuantity() != null ? line.getQuantity() : 1);
+            }
+            return vector;
+        });
+    }
+
+    private int indexOf(String productId) {
+        Integer idx = productIndex.get(productId);
+        if (idx != null) return idx;
+        synchronized (productIds) {
+            return productIndex.computeIfAbsent(productId, id -> {
+                productIds.add(id);
+                return productIds.size() - 1;
+            });
+        }
+    }
+
+    private String productIdAt(int idx) {
+        synchronized (productIds) {
+            return productIds.get(idx);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.PriceQuote;
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.model.Coupon;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.projection.ProductPriceProjection;
+import com.example.backend.service.PricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tính giá đơn hàng phía server, không tin giá client gửi lên.
+// Giá sản phẩm được quy đổi 1 lần sang long (1/100 đồng) và giữ trong bảng giá trong bộ nhớ;
+// mỗi lần checkout chỉ còn phép cộng/nhân số nguyên, không tạo BigDecimal cho từng dòng.
+@Service
+public class PricingServiceImpl implements PricingService {
+
+    private static final long BASIS_POINTS = 10_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Nạp lại toàn bộ bảng giá định kỳ, phòng khi giá bị sửa trực tiếp dưới DB
+    @Value("${pricing.table.ttl-ms:300000}")
+    private long tableTtlMs;
+
+    private final Map<String, PriceEntry> priceTable = new ConcurrentHashMap<>();
+    private volatile long tableLoadedAt;
+
+    // Giá gốc và giá sau % giảm của 1 sản phẩm, đơn vị 1/100 đồng
+    private record PriceEntry(long priceMinor, long discountedMinor) {
+    }
+
+    @Override
+    public PriceQuote quote(List<PriceQuote.Line> lines, Coupon coupon) {
+        ensureTableFresh();
+
+        int size = lines.size();
+        long[] unitPrices = new long[size];
+        long[] originalUnitPrices = new long[size];
+        long subtotal = 0;
+        for (int i = 0; i < size; i++) {
+            PriceQuote.Line line = lines.get(i);
+            PriceEntry entry = priceOf(line.productId());
+            originalUnitPrices[i] = entry.priceMinor();
+            unitPrices[i] = line.flashSalePrice() != null ? toMinor(line.flashSalePrice()) : entry.discountedMinor();
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(unitPrices[i], (long) line.quantity()));
+        }
+
+        long discount = couponDiscount(coupon, subtotal);
+        return new PriceQuote(unitPrices, originalUnitPrices, subtotal, discount, subtotal - discount);
+    }
+
+    // Sản phẩm thay đổi -> bỏ giá cũ, lần sau nạp lại đúng sản phẩm đó
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        priceTable.remove(event.productId());
+    }
+
+    private long couponDiscount(Coupon coupon, long subtotal) {
+        if (coupon == null) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (Boolean.FALSE.equals(coupon.getIsActive())) throw new RuntimeException("Mã giảm giá đã bị khóa");
+        if (coupon.getStartDate() != null && now.isBefore(coupon.getStartDate())) throw new RuntimeException("Mã chưa đến thời gian sử dụng");
+        if (coupon.getMinOrderAmount() != null && subtotal < toMinor(coupon.getMinOrderAmount())) {
+            throw new RuntimeException("Đơn hàng chưa đạt giá trị tối thiểu để dùng mã này");
+        }
+
+        long discount;
+        if (coupon.getDiscountType() == Coupon.DiscountType.percent) {
+            discount = applyBasisPoints(subtotal, toBasisPoints(coupon.getDiscountValue()));
+            if (coupon.getMaxDiscount() != null && coupon.getMaxDiscount().signum() > 0) {
+                discount = Math.min(discount, toMinor(coupon.getMaxDiscount()));
+            }
+        } else {
+            discount = toMinor(coupon.getDiscountValue());
+        }
+        return Math.min(Math.max(discount, 0), subtotal);
+    }
+
+    private PriceEntry priceOf(String productId) {
+        PriceEntry entry = priceTable.get(productId);
+        if (entry == null) {
+            // Sản phẩm mới tạo / vừa sửa giá
+            entry = productRepository.findPriceById(productId)
+                    .map(this::toEntry)
+                    .orElseThrow(() -> new RuntimeException("Sản phẩm không tồn tại: " + productId));
+            priceTable.put(productId, entry);
+        }
+        return entry;
+    }
+
+    private void ensureTableFresh() {
+        long now = System.currentTimeMillis();
+        if (now - tableLoadedAt < tableTtlMs) return;
+        synchronized (priceTable) {
+            if (now - tableLoadedAt < tableTtlMs) return;
+            Map<String, PriceEntry> fresh = new ConcurrentHashMap<>();
+            for (ProductPriceProjection row : productRepository.findAllPrices()) {
+                fresh.put(row.getProductId(), toEntry(row));
+            }
+            priceTable.clear();
+            priceTable.putAll(fresh);
+            tableLoadedAt = now;
+        }
+    }
+
+    private PriceEntry toEntry(ProductPriceProjection row) {
+        long price = toMinor(row.getPrice());
+        long discountBps = row.getDiscount() != null ? toBasisPoints(row.getDiscount()) : 0;
+        return new PriceEntry(price, price - applyBasisPoints(price, discountBps));
+    }
+
+    // amount * bps / 10000, làm tròn nửa lên
+    private static long applyBasisPoints(long amount, long bps) {
+        bps = Math.max(0, Math.min(bps, BASIS_POINTS));
+        return (Math.multiplyExact(amount, bps) + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    // 12.5 (%) -> 1250
+    private static long toBasisPoints(BigDecimal percent) {
+        return percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(PriceQuote.SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
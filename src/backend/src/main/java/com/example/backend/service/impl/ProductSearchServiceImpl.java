@@ -0,0 +1,394 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.ProductSearchHitDTO;
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.model.Category;
+import com.example.backend.model.Product;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.service.ProductSearchService;
+import com.example.backend.util.VietnameseText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Tìm kiếm sản phẩm trong bộ nhớ:
+// - Chỉ mục ngược (term -> danh sách sản phẩm + tần suất có trọng số theo trường)
+// - Bỏ dấu tiếng Việt khi index và khi tìm ("ban an" khớp "bàn ăn")
+// - Gõ sai chính tả: tìm term gần đúng qua chỉ mục trigram rồi kiểm tra khoảng cách chỉnh sửa
+// - Xếp hạng BM25, cập nhật từng sản phẩm qua ProductChangedEvent
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Trọng số từng trường khi cộng tần suất term
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float ATTRIBUTE_WEIGHT = 1.5f; // chất liệu, màu, xuất xứ
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final int MAX_FUZZY_EXPANSIONS = 16;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Index index = new Index();
+
+    // Sản phẩm thay đổi trong lúc đang dựng lại toàn bộ chỉ mục -> index lại sau khi thay chỉ mục mới
+    private final Set<String> changedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+
+    // Tài liệu đã index: thông tin hiển thị + danh sách term để gỡ khỏi postings khi cập nhật
+    private record Doc(String productId, String productName, String imageUrl, BigDecimal price,
+                       BigDecimal discount, String categoryId, String categoryName,
+                       float length, String[] terms) {
+    }
+
+    // Danh sách (docId, tf) của 1 term, mảng tự giãn; gỡ doc bằng cách đổi chỗ với phần tử cuối
+    private static final class Posting {
+        int[] docs = new int[4];
+        float[] tfs = new float[4];
+        int size;
+
+        void add(int doc, float tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    tfs[i] = tfs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Index {
+        final Map<String, Integer> docIds = new HashMap<>();
+        final List<Doc> docs = new ArrayList<>();          // docId -> Doc (null nếu đã xóa)
+        final Map<String, Posting> postings = new HashMap<>();
+        final Map<String, Set<String>> trigrams = new HashMap<>(); // trigram -> các term chứa nó
+        double totalLength;
+        int liveDocs;
+
+        float avgLength() {
+            return liveDocs == 0 ? 1f : (float) (totalLength / liveDocs);
+        }
+    }
+
+    @Override
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        List<String> tokens = VietnameseText.tokenize(query);
+        if (tokens.isEmpty()) return List.of();
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        lock.readLock().lock();
+        try {
+            Index idx = index;
+            int n = idx.docs.size();
+            if (n == 0) return List.of();
+
+            float[] total = new float[n];
+            int[] matchedTokens = new int[n];
+            float[] tokenScore = new float[n];
+            int[] touched = new int[16];
+            float avgLength = idx.avgLength();
+
+            List<String> distinctTokens = tokens.stream().distinct().toList();
+            for (String token : distinctTokens) {
+                int touchedCount = 0;
+                for (Map.Entry<String, Float> expansion : expand(idx, token).entrySet()) {
+                    Posting posting = idx.postings.get(expansion.getKey());
+                    float idf = idf(idx.liveDocs, posting.size);
+                    for (int i = 0; i < posting.size; i++) {
+                        int doc = posting.docs[i];
+                        float tf = posting.tfs[i];
+                        float norm = K1 * (1 - B + B * idx.docs.get(doc).length() / avgLength);
+                        float score = expansion.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                        if (tokenScore[doc] == 0) {
+                            if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                            touched[touchedCount++] = doc;
+                        }
+                        // Nhiều biến thể của cùng 1 từ chỉ tính biến thể khớp tốt nhất
+                        tokenScore[doc] = Math.max(tokenScore[doc], score);
+                    }
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    int doc = touched[i];
+                    total[doc] += tokenScore[doc];
+                    matchedTokens[doc]++;
+                    tokenScore[doc] = 0;
+                }
+            }
+
+            // Top-K bằng min-heap; khớp đủ các từ được ưu tiên (nhân tỉ lệ số từ khớp)
+            PriorityQueue<float[]> heap = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a[0], b[0]));
+            float queryTokens = distinctTokens.size();
+            for (int doc = 0; doc < n; doc++) {
+                if (matchedTokens[doc] == 0) continue;
+                float score = total[doc] * (matchedTokens[doc] / queryTokens);
+                if (heap.size() < k) {
+                    heap.add(new float[]{score, doc});
+                } else if (score > heap.peek()[0]) {
+                    heap.poll();
+                    heap.add(new float[]{score, doc});
+                }
+            }
+
+            List<ProductSearchHitDTO> hits = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                float[] entry = heap.poll();
+                Doc d = idx.docs.get((int) entry[1]);
+                hits.add(new ProductSearchHitDTO(d.productId(), d.productName(), d.imageUrl(), d.price(),
+                        d.discount(), d.categoryId(), d.categoryName(), entry[0]));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.index.rebuild-ms:3600000}", fixedDelayString = "${search.index.rebuild-ms:3600000}")
+    public void rebuildIndex() {
+        synchronized (changedDuringRebuild) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        try {
+            Map<String, String> categoryNames = loadCategoryNames();
+            Index fresh = new Index();
+            for (Product product : productRepository.findAll()) {
+                addDoc(fresh, product, categoryNames.get(product.getCategoryId()));
+            }
+
+            Set<String> changed;
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                synchronized (changedDuringRebuild) {
+                    rebuilding = false;
+                    changed = new HashSet<>(changedDuringRebuild);
+                    changedDuringRebuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changed.forEach(this::reindexProduct);
+            log.info("Product search index rebuilt: {} products, {} terms", fresh.liveDocs, fresh.postings.size());
+        } catch (RuntimeException e) {
+            synchronized (changedDuringRebuild) {
+                rebuilding = false;
+            }
+            log.warn("Could not rebuild product search index: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void reindexProduct(String productId) {
+        synchronized (changedDuringRebuild) {
+            if (rebuilding) changedDuringRebuild.add(productId);
+        }
+        Product product = productRepository.findById(productId).orElse(null);
+        String categoryName = null;
+        if (product != null && product.getCategoryId() != null) {
+            categoryName = categoryRepository.findById(product.getCategoryId())
+                    .map(Category::getCategoryName).orElse(null);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(index, productId);
+            if (product != null) addDoc(index, product, categoryName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reindexProduct(event.productId());
+    }
+
+    // --- XÂY CHỈ MỤC ---
+
+    private void addDoc(Index idx, Product product, String categoryName) {
+        Map<String, Float> tfs = new HashMap<>();
+        float length = 0;
+        length += addField(tfs, product.getProductName(), NAME_WEIGHT);
+        length += addField(tfs, categoryName, CATEGORY_WEIGHT);
+        length += addField(tfs, product.getMaterial(), ATTRIBUTE_WEIGHT);
+        length += addField(tfs, product.getColor(), ATTRIBUTE_WEIGHT);
+        length += addField(tfs, product.getOrigin(), ATTRIBUTE_WEIGHT);
+        length += addField(tfs, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int docId = idx.docs.size();
+        idx.docs.add(new Doc(product.getProductId(), product.getProductName(), product.getImageUrl(),
+                product.getPrice(), product.getDiscount(), product.getCategoryId(), categoryName,
+                Math.max(length, 1f), tfs.keySet().toArray(new String[0])));
+        idx.docIds.put(product.getProductId(), docId);
+        idx.totalLength += length;
+        idx.liveDocs++;
+
+        for (Map.Entry<String, Float> entry : tfs.entrySet()) {
+            Posting posting = idx.postings.get(entry.getKey());
+            if (posting == null) {
+                posting = new Posting();
+                idx.postings.put(entry.getKey(), posting);
+                for (String gram : trigrams(entry.getKey())) {
+                    idx.trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+            posting.add(docId, entry.getValue());
+        }
+    }
+
+    private void removeDoc(Index idx, String productId) {
+        Integer docId = idx.docIds.remove(productId);
+        if (docId == null) return;
+        Doc doc = idx.docs.get(docId);
+        idx.docs.set(docId, null);
+        idx.totalLength -= doc.length();
+        idx.liveDocs--;
+        for (String term : doc.terms()) {
+            Posting posting = idx.postings.get(term);
+            if (posting == null) continue;
+            posting.remove(docId);
+            if (posting.size == 0) {
+                idx.postings.remove(term);
+                for (String gram : trigrams(term)) {
+                    Set<String> terms = idx.trigrams.get(gram);
+                    if (terms != null && terms.remove(term) && terms.isEmpty()) idx.trigrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private float addField(Map<String, Float> tfs, String text, float weight) {
+        List<String> tokens = VietnameseText.tokenize(text);
+        for (String token : tokens) {
+            tfs.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private Map<String, String> loadCategoryNames() {
+        Map<String, String> names = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            names.put(category.getCategoryId(), category.getCategoryName());
+        }
+        return names;
+    }
+
+    // --- GÕ SAI CHÍNH TẢ ---
+
+    // Term của chỉ mục dùng cho 1 từ trong câu tìm: chính nó (trọng số 1) + các term gần đúng (trọng số thấp hơn)
+    private Map<String, Float> expand(Index idx, String token) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (idx.postings.containsKey(token)) {
+            expansions.put(token, 1f);
+        }
+        int maxEdits = token.length() < 4 ? 0 : token.length() < 8 ? 1 : 2;
+        if (maxEdits == 0) return expansions;
+
+        // Ứng viên: các term có chung đủ nhiều trigram (mỗi lỗi gõ làm lệch tối đa 3 trigram)
+        List<String> grams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> terms = idx.trigrams.get(gram);
+            if (terms == null) continue;
+            for (String term : terms) shared.merge(term, 1, Integer::sum);
+        }
+        int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+        shared.entrySet().stream()
+                .filter(e -> e.getValue() >= minShared && !e.getKey().equals(token))
+                .filter(e -> Math.abs(e.getKey().length() - token.length()) <= maxEdits)
+                .sorted((a, b) -> b.getValue() - a.getValue())
+                .limit(MAX_FUZZY_EXPANSIONS * 4L)
+                .forEach(e -> {
+                    if (expansions.size() > MAX_FUZZY_EXPANSIONS) return;
+                    int distance = editDistance(token, e.getKey(), maxEdits);
+                    if (distance <= maxEdits) {
+                        expansions.put(e.getKey(), distance == 1 ? 0.6f : 0.4f);
+                    }
+                });
+        return expansions;
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Khoảng cách Damerau-Levenshtein (có tính hoán đổi 2 ký tự kề nhau), dừng sớm khi vượt maxEdits
+    private static int editDistance(String a, String b, int maxEdits) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    curr[j] = Math.min(curr[j], prevPrev[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > maxEdits) return maxEdits + 1;
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    private static float idf(int docCount, int docFreq) {
+        return (float) Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+}
@@ -1,44 +1,80 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.event.ProductChangedEvent;
 import com.example.backend.model.Product;
 import com.example.backend.repository.ProductRepository;
+import com.example.backend.service.InventoryShardService;
+import com.example.backend.service.PersonalRecommendationService;
 import com.example.backend.service.ProductService;
+import com.example.backend.service.RecommendationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryShardService inventoryShardService;
+    private final RecommendationService recommendationService;
+    private final PersonalRecommendationService personalRecommendationService;
 
-    public ProductServiceImpl(ProductRepository productRepository) {
+    @Value("${recommendation.related.limit:12}")
+    private int relatedLimit;
+
+    public ProductServiceImpl(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                              InventoryShardService inventoryShardService, RecommendationService recommendationService,
+                              PersonalRecommendationService personalRecommendationService) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.inventoryShardService = inventoryShardService;
+        this.recommendationService = recommendationService;
+        this.personalRecommendationService = personalRecommendationService;
     }
 
     @Override
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productRepository.findAllWithCategory();
     }
 
     @Override
     public Optional<Product> getProductById(String id) {
-        return productRepository.findById(id);
+        return productRepository.findWithCategoryByProductId(id);
     }
 
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getProductId()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public Product updateProduct(String id, Product product) {
         return productRepository.findById(id).map(existing -> {
+            // Form admin gửi kèm version lúc tải: sản phẩm đã đổi từ đó (vd. vừa có đơn trừ kho)
+            // thì báo xung đột để admin tải lại, không ghi đè quantity bằng số cũ
+            if (!Objects.equals(product.getVersion(), existing.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Product.class, id);
+            }
             existing.setProductName(product.getProductName());
             existing.setPrice(product.getPrice());
             existing.setDescription(product.getDescription());
             existing.setImageUrl(product.getImageUrl());
-            existing.setQuantity(product.getQuantity());
+            // Sản phẩm chia shard: tồn kho được chia lại qua InventoryShardService bên dưới
+            if (!existing.isStockSharded()) {
+                existing.setQuantity(product.getQuantity());
+            }
             existing.setDiscount(product.getDiscount());
             existing.setCategoryId(product.getCategoryId());
             existing.setSize(product.getSize());
@@ -46,13 +82,26 @@ public class ProductServiceImpl implements ProductService {
             existing.setMaterial(product.getMaterial());
             existing.setWarranty(product.getWarranty());
             existing.setOrigin(product.getOrigin());
-            return productRepository.save(existing);
+            productRepository.save(existing);
+            if (existing.isStockSharded()) {
+                // Cùng transaction: sửa thông tin và chia lại shard cùng commit hoặc cùng rollback
+                inventoryShardService.setStock(id, product.getQuantity());
+            }
+            // Flush để version trả về cho form admin là version sau lần ghi này (kể cả phần đồng bộ shard)
+            productRepository.flush();
+            eventPublisher.publishEvent(new ProductChangedEvent(id));
+            return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         }).orElseThrow(() -> new RuntimeException("Product not found"));
     }
 
     @Override
     public void deleteProduct(String id) {
+        // Gom shard tồn kho (nếu có) trước khi xóa để không để lại dòng product_stock_shards mồ côi
+        productRepository.findById(id)
+                .filter(Product::isStockSharded)
+                .ifPresent(p -> inventoryShardService.disableSharding(id));
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 
     @Override
@@ -62,9 +111,30 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Product> getRelatedProducts(String productId) {
+        List<String> ids = recommendationService.getRelatedProductIds(productId, relatedLimit);
+        if (!ids.isEmpty()) return loadInOrder(ids);
+
+        // Sản phẩm mới, mô hình gợi ý chưa tính tới -> tạm lấy cùng danh mục
         Product current = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        return productRepository.findRelatedProducts(current.getCategoryId(), productId, PageRequest.of(0, relatedLimit));
+    }
+
+    @Override
+    public List<Product> getFrequentlyBoughtTogether(String productId) {
+        return loadInOrder(recommendationService.getBoughtTogetherProductIds(productId, relatedLimit));
+    }
+
+    @Override
+    public List<Product> getRecommendedForUser(String userId, int limit) {
+        return loadInOrder(personalRecommendationService.recommendFor(userId, limit));
+    }
 
-        return productRepository.findRelatedProducts(current.getCategoryId(), productId);
+    // findAllById không giữ thứ tự -> sắp lại theo thứ hạng gợi ý
+    private List<Product> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getProductId, p -> p));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 }
@@ -0,0 +1,467 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.OrderPlacedEvent;
+import com.example.backend.event.ProductChangedEvent;
+import com.example.backend.model.Product;
+import com.example.backend.repository.OrderDetailRepository;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.projection.OrderLineProjection;
+import com.example.backend.service.RecommendationService;
+import com.example.backend.util.IntCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+// Gợi ý "sản phẩm liên quan" và "thường được mua cùng".
+// Mô hình: số lần mua chung giữa từng cặp sản phẩm (từ order_details) + độ giống thuộc tính
+// (danh mục, chất liệu, màu, mức giá). Kết quả top-K mỗi sản phẩm được tính sẵn ở nền,
+// endpoint chỉ còn đọc 1 danh sách K phần tử.
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    // Đơn quá nhiều dòng (thường là mua sỉ) chỉ lấy N sản phẩm đầu để số cặp không bùng nổ
+    private static final int MAX_ITEMS_PER_ORDER = 50;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderDetailRepository orderDetailRepository;
+
+    @Value("${recommendation.top-k:20}")
+    private int topK;
+
+    // Số sản phẩm cùng danh mục gần giá nhất (mỗi phía) được xét khi tính "liên quan"
+    @Value("${recommendation.price-window:200}")
+    private int priceWindow;
+
+    @Value("${recommendation.popular-size:100}")
+    private int popularSize;
+
+    // Thuộc tính dùng để so độ giống; price = giá sau giảm
+    private record Item(String productId, String categoryId, String material, String color, double price) {
+    }
+
+    // Top-K của 1 sản phẩm: id giảm dần theo điểm
+    private record Neighbours(List<String> ids, float[] scores) {
+    }
+
+    // Toàn bộ trạng thái mô hình, chỉ sửa khi giữ khóa modelLock.
+    // Mảng trong categoryByPrice không bao giờ bị sửa tại chỗ (luôn thay mảng mới).
+    private static final class Model {
+        final Map<String, Integer> indexOf = new HashMap<>();
+        final List<Item> items = new ArrayList<>();               // idx -> Item (null nếu đã xóa)
+        final List<IntCounter> coCounts = new ArrayList<>();      // idx -> (idx khác -> số đơn mua chung)
+        int[] orderCounts = new int[16];                          // idx -> số đơn có sản phẩm này
+        final Map<String, int[]> categoryByPrice = new HashMap<>(); // danh mục -> idx sắp theo giá
+        final Set<Integer> dirtyItems = new HashSet<>();
+        final Set<String> dirtyCategories = new HashSet<>();
+
+        int indexOf(String productId) {
+            Integer idx = indexOf.get(productId);
+            if (idx != null) return idx;
+            idx = items.size();
+            items.add(null);
+            coCounts.add(new IntCounter());
+            if (idx == orderCounts.length) orderCounts = Arrays.copyOf(orderCounts, idx * 2);
+            indexOf.put(productId, idx);
+            return idx;
+        }
+
+        // Bản chụp chỉ đủ để tính top-K cho các dòng rows ngoài khóa: chép bộ đếm mua chung của
+        // riêng các dòng đó, số đơn và danh sách sản phẩm; mảng theo giá dùng chung tham chiếu
+        Model snapshot(List<Integer> rows) {
+            Model copy = new Model();
+            copy.items.addAll(items);
+            for (int i = 0; i < coCounts.size(); i++) copy.coCounts.add(null);
+            for (int idx : rows) copy.coCounts.set(idx, coCounts.get(idx).copy());
+            copy.orderCounts = orderCounts.clone();
+            copy.categoryByPrice.putAll(categoryByPrice);
+            return copy;
+        }
+    }
+
+    private final Object modelLock = new Object();
+    private Model model = new Model();
+
+    // Đơn / sản phẩm thay đổi trong lúc đang dựng lại mô hình -> áp lại sau khi thay mô hình mới
+    private final List<OrderPlacedEvent> pendingOrders = new ArrayList<>();
+    private final Set<String> pendingProducts = new HashSet<>();
+    private boolean rebuilding;
+
+    // Kết quả top-K, đọc không cần khóa
+    private final Map<String, Neighbours> related = new ConcurrentHashMap<>();
+    private final Map<String, Neighbours> boughtTogether = new ConcurrentHashMap<>();
+    private volatile List<String> popular = List.of();
+
+    @Override
+    public List<String> getRelatedProductIds(String productId, int limit) {
+        return head(related.get(productId), limit);
+    }
+
+    @Override
+    public List<String> getBoughtTogetherProductIds(String productId, int limit) {
+        return head(boughtTogether.get(productId), limit);
+    }
+
+    @Override
+    public Map<String, Double> getNeighbourScores(String productId) {
+        Map<String, Double> scores = new HashMap<>();
+        addScores(scores, boughtTogether.get(productId), 1.0);
+        // Sản phẩm tương tự có trọng số thấp hơn: gợi ý chính vẫn dựa trên hành vi mua
+        addScores(scores, related.get(productId), 0.5);
+        return scores;
+    }
+
+    @Override
+    public List<String> getPopularProductIds(int limit) {
+        List<String> ids = popular;
+        return ids.size() <= limit ? ids : ids.subList(0, limit);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${recommendation.rebuild-ms:86400000}", fixedDelayString = "${recommendation.rebuild-ms:86400000}")
+    public void rebuild() {
+        synchronized (modelLock) {
+            rebuilding = true;
+            pendingOrders.clear();
+            pendingProducts.clear();
+        }
+        try {
+            Model fresh = new Model();
+            for (Product product : productRepository.findAll()) {
+                fresh.items.set(fresh.indexOf(product.getProductId()), toItem(product));
+            }
+
+            Set<String> loadedOrders = new HashSet<>();
+            String currentOrder = null;
+            List<String> basket = new ArrayList<>();
+            for (OrderLineProjection line : orderDetailRepository.findPurchaseLines()) {
+                if (!line.getOrderId().equals(currentOrder)) {
+                    addBasket(fresh, basket);
+                    basket.clear();
+                    currentOrder = line.getOrderId();
+                    loadedOrders.add(currentOrder);
+                }
+                basket.add(line.getProductId());
+            }
+            addBasket(fresh, basket);
+
+            for (int i = 0; i < fresh.items.size(); i++) {
+                Item item = fresh.items.get(i);
+                if (item != null && item.categoryId() != null) fresh.dirtyCategories.add(item.categoryId());
+            }
+            rebuildCategories(fresh);
+
+            Map<String, Neighbours> freshRelated = new HashMap<>();
+            Map<String, Neighbours> freshTogether = new HashMap<>();
+            for (int i = 0; i < fresh.items.size(); i++) {
+                Item item = fresh.items.get(i);
+                if (item == null) continue;
+                freshRelated.put(item.productId(), computeRelated(fresh, i));
+                freshTogether.put(item.productId(), computeBoughtTogether(fresh, i));
+            }
+            fresh.dirtyItems.clear();
+
+            synchronized (modelLock) {
+                model = fresh;
+                related.keySet().retainAll(freshRelated.keySet());
+                boughtTogether.keySet().retainAll(freshTogether.keySet());
+                related.putAll(freshRelated);
+                boughtTogether.putAll(freshTogether);
+                popular = computePopular(fresh);
+                for (OrderPlacedEvent event : pendingOrders) {
+                    if (!loadedOrders.contains(event.orderId())) addBasket(fresh, event.productIds());
+                }
+                pendingOrders.clear();
+                rebuilding = false;
+            }
+            List<String> changed;
+            synchronized (modelLock) {
+                changed = new ArrayList<>(pendingProducts);
+                pendingProducts.clear();
+            }
+            changed.forEach(this::reloadProduct);
+            log.info("Recommendation model rebuilt: {} products, {} orders", freshRelated.size(), loadedOrders.size());
+        } catch (RuntimeException e) {
+            synchronized (modelLock) {
+                rebuilding = false;
+            }
+            log.warn("Could not rebuild recommendation model: {}", e.getMessage());
+        }
+    }
+
+    // Tính lại top-K của các sản phẩm vừa có đơn mới / vừa bị sửa.
+    // Trong khóa chỉ lấy danh sách dòng cần tính và chụp trạng thái; phần tính chạy ngoài khóa
+    // để onOrderPlaced / sửa sản phẩm không phải chờ, xong mới thay kết quả vào.
+    @Scheduled(fixedDelayString = "${recommendation.refresh-ms:60000}")
+    public void refreshDirty() {
+        Model m;
+        Model snapshot;
+        List<Integer> rows;
+        synchronized (modelLock) {
+            if (rebuilding) return;
+            m = model;
+            if (m.dirtyItems.isEmpty() && m.dirtyCategories.isEmpty()) return;
+            rebuildCategories(m);
+            rows = new ArrayList<>(m.dirtyItems);
+            m.dirtyItems.clear();
+            snapshot = m.snapshot(rows);
+        }
+
+        List<Integer> computed = new ArrayList<>(rows.size());
+        List<Neighbours> freshRelated = new ArrayList<>(rows.size());
+        List<Neighbours> freshTogether = new ArrayList<>(rows.size());
+        for (int idx : rows) {
+            if (snapshot.items.get(idx) == null) continue;
+            computed.add(idx);
+            freshRelated.add(computeRelated(snapshot, idx));
+            freshTogether.add(computeBoughtTogether(snapshot, idx));
+        }
+        List<String> freshPopular = computePopular(snapshot);
+
+        synchronized (modelLock) {
+            // Mô hình được dựng lại trong lúc tính: bản dựng lại đã có kết quả đầy đủ
+            if (model != m || rebuilding) return;
+            for (int k = 0; k < computed.size(); k++) {
+                Item item = m.items.get(computed.get(k));
+                // Sản phẩm vừa bị xóa trong lúc tính thì không đưa lại vào
+                if (item == null) continue;
+                related.put(item.productId(), freshRelated.get(k));
+                boughtTogether.put(item.productId(), freshTogether.get(k));
+            }
+            popular = freshPopular;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (modelLock) {
+            if (rebuilding) pendingOrders.add(event);
+            addBasket(model, event.productIds());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (modelLock) {
+            if (rebuilding) pendingProducts.add(event.productId());
+        }
+        reloadProduct(event.productId());
+    }
+
+    private void reloadProduct(String productId) {
+        Product product = productRepository.findById(productId).orElse(null);
+        synchronized (modelLock) {
+            Model m = model;
+            int idx = m.indexOf(productId);
+            Item old = m.items.get(idx);
+            Item now = product != null ? toItem(product) : null;
+            // Đổi tồn kho, mô tả, ảnh... không ảnh hưởng gợi ý
+            if (Objects.equals(old, now)) return;
+            m.items.set(idx, now);
+
+            String oldCategory = old != null ? old.categoryId() : null;
+            String newCategory = now != null ? now.categoryId() : null;
+            if (!Objects.equals(oldCategory, newCategory)) {
+                // Thành viên danh mục đổi (chuyển danh mục / thêm / xóa) -> xếp lại cả danh mục
+                if (oldCategory != null) m.dirtyCategories.add(oldCategory);
+                if (newCategory != null) m.dirtyCategories.add(newCategory);
+            } else if (newCategory != null && old.price() != now.price()) {
+                reposition(m, newCategory, idx);
+            }
+            if (now == null) {
+                related.remove(productId);
+                boughtTogether.remove(productId);
+            } else {
+                m.dirtyItems.add(idx);
+            }
+        }
+    }
+
+    // --- CẬP NHẬT MÔ HÌNH ---
+
+    private void addBasket(Model m, List<String> productIds) {
+        if (productIds.isEmpty()) return;
+        int[] basket = productIds.stream().distinct().limit(MAX_ITEMS_PER_ORDER)
+                .mapToInt(m::indexOf).toArray();
+        for (int i : basket) {
+            m.orderCounts[i]++;
+            if (m.items.get(i) != null) m.dirtyItems.add(i);
+            for (int j : basket) {
+                if (i != j) m.coCounts.get(i).add(j, 1);
+            }
+        }
+    }
+
+    private void rebuildCategories(Model m) {
+        if (m.dirtyCategories.isEmpty()) return;
+        Map<String, List<Integer>> members = new HashMap<>();
+        for (String categoryId : m.dirtyCategories) members.put(categoryId, new ArrayList<>());
+        for (int i = 0; i < m.items.size(); i++) {
+            Item item = m.items.get(i);
+            if (item == null || item.categoryId() == null) continue;
+            List<Integer> list = members.get(item.categoryId());
+            if (list != null) list.add(i);
+        }
+        members.forEach((categoryId, list) -> {
+            int[] sorted = list.stream()
+                    .sorted((a, b) -> Double.compare(m.items.get(a).price(), m.items.get(b).price()))
+                    .mapToInt(Integer::intValue).toArray();
+            m.categoryByPrice.put(categoryId, sorted);
+            // Đổi thành viên danh mục -> các sản phẩm trong danh mục cũng cần tính lại "liên quan"
+            for (int idx : sorted) m.dirtyItems.add(idx);
+        });
+        m.dirtyCategories.clear();
+    }
+
+    // Đổi giá trong cùng danh mục: chỉ dời vị trí sản phẩm trong mảng theo giá, không đánh dấu cả danh mục
+    private void reposition(Model m, String categoryId, int idx) {
+        int[] byPrice = m.categoryByPrice.get(categoryId);
+        // Danh mục đang chờ xếp lại toàn bộ (có thể chứa sản phẩm đã xóa) thì để lần xếp lại xử lý
+        if (byPrice == null || m.dirtyCategories.contains(categoryId)) {
+            m.dirtyCategories.add(categoryId);
+            return;
+        }
+        int[] others = IntStream.of(byPrice).filter(k -> k != idx).toArray();
+        int pos = lowerBound(m, others, m.items.get(idx).price());
+        int[] sorted = new int[others.length + 1];
+        System.arraycopy(others, 0, sorted, 0, pos);
+        sorted[pos] = idx;
+        System.arraycopy(others, pos, sorted, pos + 1, others.length - pos);
+        m.categoryByPrice.put(categoryId, sorted);
+    }
+
+    // --- TÍNH TOP-K ---
+
+    // Thường mua cùng: độ tương đồng cosine trên số đơn, co(i,j) / sqrt(n(i) * n(j))
+    private Neighbours computeBoughtTogether(Model m, int i) {
+        List<double[]> scored = new ArrayList<>();
+        m.coCounts.get(i).forEach((j, count) -> {
+            if (count > 0 && m.items.get(j) != null) {
+                scored.add(new double[]{cosine(m, i, j, count), j});
+            }
+        });
+        return top(m, scored);
+    }
+
+    // Liên quan: sản phẩm cùng danh mục gần giá + sản phẩm hay được mua chung, chấm theo độ giống thuộc tính
+    private Neighbours computeRelated(Model m, int i) {
+        Item item = m.items.get(i);
+        Set<Integer> candidates = new LinkedHashSet<>();
+        int[] sameCategory = item.categoryId() != null ? m.categoryByPrice.get(item.categoryId()) : null;
+        if (sameCategory != null) {
+            int center = lowerBound(m, sameCategory, item.price());
+            int from = Math.max(0, center - priceWindow);
+            int to = Math.min(sameCategory.length, center + priceWindow + 1);
+            for (int k = from; k < to; k++) candidates.add(sameCategory[k]);
+        }
+        m.coCounts.get(i).forEach((j, count) -> {
+            if (count > 0) candidates.add(j);
+        });
+
+        List<double[]> scored = new ArrayList<>(candidates.size());
+        IntCounter co = m.coCounts.get(i);
+        for (int j : candidates) {
+            Item other = j != i ? m.items.get(j) : null;
+            if (other == null) continue;
+            double score = similarity(item, other);
+            int count = co.get(j);
+            if (count > 0) score += 0.5 * cosine(m, i, j, count);
+            scored.add(new double[]{score, j});
+        }
+        return top(m, scored);
+    }
+
+    // Vị trí đầu tiên trong danh mục có giá >= price
+    private static int lowerBound(Model m, int[] byPrice, double price) {
+        int lo = 0, hi = byPrice.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (m.items.get(byPrice[mid]).price() < price) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static double similarity(Item a, Item b) {
+        double score = 0;
+        if (a.categoryId() != null && a.categoryId().equals(b.categoryId())) score += 0.3;
+        if (a.material() != null && a.material().equalsIgnoreCase(b.material())) score += 0.2;
+        if (a.color() != null && a.color().equalsIgnoreCase(b.color())) score += 0.1;
+        if (a.price() > 0 && b.price() > 0) {
+            // Gấp đôi / bằng nửa giá -> ~0.3 điểm giá; chênh từ e lần trở lên -> 0
+            score += 0.4 * Math.max(0, 1 - Math.abs(Math.log(a.price() / b.price())));
+        }
+        return score;
+    }
+
+    private static double cosine(Model m, int i, int j, int count) {
+        return count / Math.sqrt((double) Math.max(1, m.orderCounts[i]) * Math.max(1, m.orderCounts[j]));
+    }
+
+    private Neighbours top(Model m, List<double[]> scored) {
+        scored.sort((a, b) -> Double.compare(b[0], a[0]));
+        int n = Math.min(topK, scored.size());
+        String[] ids = new String[n];
+        float[] scores = new float[n];
+        for (int k = 0; k < n; k++) {
+            ids[k] = m.items.get((int) scored.get(k)[1]).productId();
+            scores[k] = (float) scored.get(k)[0];
+        }
+        return new Neighbours(List.of(ids), scores);
+    }
+
+    private static Item toItem(Product product) {
+        double price = product.getPrice() != null ? product.getPrice().doubleValue() : 0;
+        BigDecimal discount = product.getDiscount();
+        if (discount != null && discount.signum() > 0) price *= 1 - discount.doubleValue() / 100;
+        return new Item(product.getProductId(), product.getCategoryId(), product.getMaterial(), product.getColor(), price);
+    }
+
+    private static void addScores(Map<String, Double> scores, Neighbours neighbours, double weight) {
+        if (neighbours == null) return;
+        for (int k = 0; k < neighbours.ids().size(); k++) {
+            scores.merge(neighbours.ids().get(k), weight * neighbours.scores()[k], Double::sum);
+        }
+    }
+
+    // Sản phẩm có nhiều đơn nhất (gợi ý cho người dùng chưa có lịch sử mua)
+    private List<String> computePopular(Model m) {
+        return IntStream.range(0, m.items.size())
+                .filter(i -> m.items.get(i) != null && m.orderCounts[i] > 0)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(m.orderCounts[b], m.orderCounts[a]))
+                .limit(popularSize)
+                .map(i -> m.items.get(i).productId())
+                .toList();
+    }
+
+    private static List<String> head(Neighbours neighbours, int limit) {
+        if (neighbours == null) return List.of();
+        List<String> ids = neighbours.ids();
+        return ids.size() <= limit ? ids : ids.subList(0, limit);
+    }
+}
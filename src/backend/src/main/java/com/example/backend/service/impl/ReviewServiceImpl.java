@@ -1,22 +1,44 @@
 package com.example.backend.service.impl;
 
 import com.example.backend.DTO.ReviewDTO;
+import com.example.backend.DTO.ReviewPageDTO;
+import com.example.backend.event.ProductRatingChangedEvent;
 import com.example.backend.model.Product;
 import com.example.backend.model.Review;
 import com.example.backend.model.User;
 import com.example.backend.repository.ProductRepository;
 import com.example.backend.repository.ReviewRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.repository.projection.ReviewListProjection;
 import com.example.backend.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReviewServiceImpl implements ReviewService {
 
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private static final Set<String> SORT_MODES = Set.of("newest", "with-comment", "highest", "lowest");
+
+    // Con trỏ trang đầu: lớn hơn mọi bản ghi thật
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -26,22 +48,68 @@ public class ReviewServiceImpl implements ReviewService {
     @Autowired
     private ProductRepository productRepository; // Cần có Repository này
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public List<ReviewDTO> getAllReviews() {
-        return reviewRepository.findAll().stream()
+        return reviewRepository.findAllList().stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<ReviewDTO> getReviewsByProductId(String productId) {
-        return reviewRepository.findByProduct_ProductId(productId).stream()
+        return reviewRepository.findListByProductId(productId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public ReviewPageDTO getReviewPage(String productId, String sort, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String mode = sort == null ? "newest" : sort;
+        // Tham số do client gửi sai -> 400, không để thành lỗi 500
+        if (!SORT_MODES.contains(mode)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Kiểu sắp xếp không hợp lệ: " + mode);
+        }
+        boolean ascRating = mode.equals("lowest");
+        Cursor after = cursor == null || cursor.isBlank()
+                ? new Cursor(ascRating ? 0 : 6, MAX_CREATED_AT, Integer.MAX_VALUE)
+                : Cursor.decode(cursor);
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không, khỏi cần COUNT
+        Pageable fetch = PageRequest.of(0, size + 1);
+        List<ReviewListProjection> rows = switch (mode) {
+            case "newest" -> reviewRepository.findPageNewest(productId, after.createdAt(), after.reviewId(), fetch);
+            case "with-comment" -> reviewRepository.findPageWithComment(productId, after.createdAt(), after.reviewId(), fetch);
+            case "highest" -> reviewRepository.findPageHighest(productId, after.rating(), after.createdAt(), after.reviewId(), fetch);
+            case "lowest" -> reviewRepository.findPageLowest(productId, after.rating(), after.createdAt(), after.reviewId(), fetch);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Kiểu sắp xếp không hợp lệ: " + mode);
+        };
+
+        boolean hasMore = rows.size() > size;
+        List<ReviewListProjection> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ReviewListProjection last = page.get(page.size() - 1);
+            nextCursor = new Cursor(last.getRating(), last.getCreatedAt(), last.getReviewId()).encode();
+        }
+        return new ReviewPageDTO(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllReviews(Consumer<ReviewDTO> consumer) {
+        try (Stream<ReviewListProjection> rows = reviewRepository.streamAllList()) {
+            rows.map(this::mapToDTO).forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional
     public ReviewDTO createReview(ReviewDTO reviewDTO) {
+        validateRating(reviewDTO.getRating());
         // 1. Tìm User và Product
         User user = userRepository.findById(reviewDTO.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -55,16 +123,29 @@ public class ReviewServiceImpl implements ReviewService {
         review.setRating(reviewDTO.getRating());
         review.setComment(reviewDTO.getComment());
 
-        // 3. Lưu
+        // 3. Lưu + cộng vào tổng hợp đánh giá của sản phẩm (cùng transaction)
         Review savedReview = reviewRepository.save(review);
+        adjustRating(product.getProductId(), savedReview.getRating(), 1);
+        publishRatingChanged(product.getProductId());
         return mapToDTO(savedReview);
     }
 
     @Override
+    @Transactional
     public ReviewDTO updateReview(Integer reviewId, ReviewDTO reviewDTO) {
+        validateRating(reviewDTO.getRating());
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
 
+        // Đổi số sao -> chuyển 1 lượt từ mức cũ sang mức mới
+        int oldRating = review.getRating();
+        String productId = review.getProduct().getProductId();
+        if (oldRating != reviewDTO.getRating()) {
+            adjustRating(productId, oldRating, -1);
+            adjustRating(productId, reviewDTO.getRating(), 1);
+            publishRatingChanged(productId);
+        }
+
         // Chỉ cho phép sửa rating và comment
         review.setRating(reviewDTO.getRating());
         review.setComment(reviewDTO.getComment());
@@ -74,11 +155,59 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
+    @Transactional
     public void deleteReview(Integer reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new RuntimeException("Review not found");
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found"));
+        reviewRepository.delete(review);
+        adjustRating(review.getProduct().getProductId(), review.getRating(), -1);
+        publishRatingChanged(review.getProduct().getProductId());
+    }
+
+    private void adjustRating(String productId, int rating, int delta) {
+        productRepository.adjustRating(productId, rating, delta);
+    }
+
+    // Chỉ catalog và ETag danh sách sản phẩm cần điểm mới (sau khi commit), không đụng các chỉ mục khác
+    private void publishRatingChanged(String productId) {
+        eventPublisher.publishEvent(new ProductRatingChangedEvent(productId));
+    }
+
+    private void validateRating(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("Số sao phải từ 1 đến 5");
+        }
+    }
+
+    private ReviewDTO mapToDTO(ReviewListProjection row) {
+        ReviewDTO dto = new ReviewDTO();
+        dto.setReviewId(row.getReviewId());
+        dto.setUserId(row.getUserId());
+        dto.setUserName(row.getUserName());
+        dto.setProductId(row.getProductId());
+        dto.setRating(row.getRating());
+        dto.setComment(row.getComment());
+        dto.setCreatedAt(row.getCreatedAt());
+        return dto;
+    }
+
+    // Vị trí của dòng cuối trang trước, gửi cho client dạng chuỗi base64url "rating|createdAt|reviewId"
+    private record Cursor(int rating, LocalDateTime createdAt, int reviewId) {
+
+        String encode() {
+            String raw = rating + "|" + createdAt + "|" + reviewId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new Cursor(Integer.parseInt(parts[0]), LocalDateTime.parse(parts[1]), Integer.parseInt(parts[2]));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor không hợp lệ");
+            }
         }
-        reviewRepository.deleteById(reviewId);
     }
 
     // Helper method: Convert Entity -> DTO
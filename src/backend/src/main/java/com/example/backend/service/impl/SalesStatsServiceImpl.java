@@ -0,0 +1,283 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.DTO.NameValueDTO;
+import com.example.backend.DTO.TopProductDTO;
+import com.example.backend.model.Category;
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderDetail;
+import com.example.backend.model.Product;
+import com.example.backend.model.SalesHourStat;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.SalesHourStatRepository;
+import com.example.backend.service.SalesStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class SalesStatsServiceImpl implements SalesStatsService {
+
+    // Số phần tử tối đa giữ trong snapshot top-N
+    private static final int TOP_N = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(SalesStatsServiceImpl.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SalesHourStatRepository salesHourStatRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    // Snapshot tự làm mới sau khoảng này (phòng khi bộ đếm đổi từ instance khác)
+    @Value("${sales.stats.refresh-ms:60000}")
+    private long refreshMs;
+
+    // Số bán theo danh mục / số đơn theo giờ: cộng trong bộ nhớ sau khi đơn commit, ghi DB theo lô (flushPending).
+    // Không UPDATE dòng categories / sales_hour_stats trong transaction đặt hàng -> các đơn không xếp hàng chờ khóa dòng chung.
+    private final Map<String, LongAdder> pendingCategorySold = new ConcurrentHashMap<>();
+    private final LongAdder[] pendingHourOrders = new LongAdder[24];
+
+    {
+        for (int i = 0; i < pendingHourOrders.length; i++) pendingHourOrders[i] = new LongAdder();
+    }
+
+    private final Object refreshLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(List<TopProductDTO> topProducts,
+                            List<NameValueDTO> topCategories,
+                            long[] ordersByHour,
+                            long loadedAt) {
+    }
+
+    @Override
+    public void recordOrderPlaced(Order order) {
+        applyOrder(order, 1);
+    }
+
+    @Override
+    public void recordOrderCancelled(Order order) {
+        applyOrder(order, -1);
+    }
+
+    private void applyOrder(Order order, int sign) {
+        Map<String, Long> categoryDeltas = new HashMap<>();
+        if (order.getOrderDetails() != null) {
+            for (OrderDetail detail : order.getOrderDetails()) {
+                Product product = detail.getProduct();
+                if (product == null) continue;
+
+                long delta = (long) sign * detail.getQuantity();
+                // Product là entity đang được quản lý trong transaction -> flush cùng lúc với tồn kho.
+                // Sản phẩm chia shard: số bán đã ghi vào shard (sold_delta), rebalance cộng về sau.
+                if (!product.isStockSharded()) {
+                    product.setSoldCount(Math.max(0L, product.getSoldCount() + delta));
+                }
+                if (product.getCategoryId() != null) {
+                    categoryDeltas.merge(product.getCategoryId(), delta, Long::sum);
+                }
+            }
+        }
+
+        LocalDateTime orderDate = order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now();
+        int hour = orderDate.getHour();
+
+        // Đơn rollback thì không được cộng
+        afterCommit(() -> {
+            categoryDeltas.forEach((categoryId, delta) ->
+                    pendingCategorySold.computeIfAbsent(categoryId, id -> new LongAdder()).add(delta));
+            pendingHourOrders[hour].add(sign);
+        });
+    }
+
+    // Ghi bộ đếm đã gom xuống DB: mỗi danh mục / khung giờ 1 UPDATE cho cả lô, trong transaction ngắn riêng
+    @Scheduled(fixedDelayString = "${sales.stats.flush-ms:5000}")
+    @Transactional
+    public void flushPending() {
+        Map<String, Long> categoryDeltas = new HashMap<>();
+        pendingCategorySold.forEach((categoryId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) categoryDeltas.put(categoryId, delta);
+        });
+        long[] hourDeltas = new long[24];
+        boolean anyHour = false;
+        for (int i = 0; i < 24; i++) {
+            hourDeltas[i] = pendingHourOrders[i].sumThenReset();
+            anyHour |= hourDeltas[i] != 0;
+        }
+        if (categoryDeltas.isEmpty() && !anyHour) return;
+
+        try {
+            categoryDeltas.forEach(categoryRepository::addSoldCount);
+            for (int i = 0; i < 24; i++) {
+                if (hourDeltas[i] != 0) salesHourStatRepository.addOrderCount(i, hourDeltas[i]);
+            }
+        } catch (RuntimeException e) {
+            // Transaction rollback -> trả lại phần chưa ghi để lần sau ghi tiếp
+            restorePending(categoryDeltas, hourDeltas);
+            log.warn("Could not flush sales counters: {}", e.getMessage());
+            throw e;
+        }
+        // Transaction có thể rollback lúc commit -> cũng trả lại
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    snapshot = null;
+                } else {
+                    restorePending(categoryDeltas, hourDeltas);
+                }
+            }
+        });
+    }
+
+    private void restorePending(Map<String, Long> categoryDeltas, long[] hourDeltas) {
+        categoryDeltas.forEach((categoryId, delta) ->
+                pendingCategorySold.computeIfAbsent(categoryId, id -> new LongAdder()).add(delta));
+        for (int i = 0; i < 24; i++) pendingHourOrders[i].add(hourDeltas[i]);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot = null;
+                }
+            });
+        } else {
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public List<TopProductDTO> getTopSellingProducts(int limit) {
+        List<TopProductDTO> top = currentSnapshot().topProducts();
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    @Override
+    public List<NameValueDTO> getTopSellingCategories(int limit) {
+        List<NameValueDTO> top = currentSnapshot().topCategories();
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    @Override
+    public long[] getOrdersByHour() {
+        return currentSnapshot().ordersByHour().clone();
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt() < refreshMs) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            current = snapshot;
+            if (current == null || System.currentTimeMillis() - current.loadedAt() >= refreshMs) {
+                current = loadSnapshot();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot loadSnapshot() {
+        // Top sản phẩm: đọc qua index sold_count, chỉ lấy TOP_N dòng
+        List<TopProductDTO> topProducts = List.copyOf(
+                productRepository.findTopSellingProducts(PageRequest.of(0, TOP_N)));
+
+        // Top danh mục: min-heap kích thước TOP_N trên bảng categories (nhỏ)
+        PriorityQueue<Category> heap = new PriorityQueue<>(TOP_N + 1, Comparator.comparingLong(Category::getSoldCount));
+        for (Category category : categoryRepository.findAll()) {
+            if (category.getSoldCount() <= 0) continue;
+            heap.offer(category);
+            if (heap.size() > TOP_N) heap.poll();
+        }
+        List<NameValueDTO> topCategories = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Category category = heap.poll();
+            topCategories.add(new NameValueDTO(category.getCategoryName(), category.getSoldCount()));
+        }
+        Collections.reverse(topCategories);
+
+        long[] hours = new long[24];
+        for (SalesHourStat stat : salesHourStatRepository.findAll()) {
+            if (stat.getHourOfDay() != null && stat.getHourOfDay() >= 0 && stat.getHourOfDay() < 24) {
+                hours[stat.getHourOfDay()] = stat.getOrderCount();
+            }
+        }
+
+        return new Snapshot(topProducts, List.copyOf(topCategories), hours, System.currentTimeMillis());
+    }
+
+    @Override
+    @Transactional
+    public void rebuildFromHistory() {
+        // Dựng lại từ lịch sử đã bao gồm các đơn đang chờ ghi
+        pendingCategorySold.clear();
+        for (LongAdder adder : pendingHourOrders) adder.reset();
+
+        productRepository.rebuildSoldCounts();
+        categoryRepository.rebuildSoldCounts();
+
+        long[] hours = new long[24];
+        for (Object[] row : orderRepository.findOrdersByHour()) {
+            int hour = ((Number) row[0]).intValue();
+            if (hour >= 0 && hour < 24) {
+                hours[hour] = ((Number) row[1]).longValue();
+            }
+        }
+        List<SalesHourStat> stats = new ArrayList<>(24);
+        for (int i = 0; i < 24; i++) {
+            stats.add(new SalesHourStat(i, hours[i]));
+        }
+        salesHourStatRepository.saveAll(stats);
+
+        invalidateAfterCommit();
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return salesHourStatRepository.count() >= 24;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sinh ID kiểu Snowflake cho orders / order_details:
+//   41 bit mili-giây (từ 2024-01-01) | 10 bit node | 12 bit số thứ tự trong cùng mili-giây
+// rồi mã hóa 13 ký tự Crockford base32 độ dài cố định, nên thứ tự chuỗi = thứ tự thời gian
+// (khóa chính chèn vào cuối index, không rải ngẫu nhiên như UUID).
+// Không dùng SecureRandom, không khóa: chỉ 1 vòng CAS trên AtomicLong.
+public final class IdGenerator {
+
+    private static final long EPOCH_MS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13; // 13 * 5 bit >= 64 bit
+
+    // (mili-giây << 12 | số thứ tự) của ID cấp gần nhất. Hết 4096 số trong 1 ms thì "mượn" ms kế tiếp,
+    // đồng hồ chạy lùi cũng không sinh trùng vì giá trị này chỉ tăng.
+    private static final AtomicLong lastTick = new AtomicLong();
+    private static volatile long nodeBits;
+
+    private IdGenerator() {
+    }
+
+    public static void configureNode(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("nodeId phải trong khoảng 0.." + MAX_NODE);
+        }
+        nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public static String nextId(String prefix) {
+        return encode(prefix, nextLong());
+    }
+
+    public static long nextLong() {
+        long now = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+        long tick;
+        while (true) {
+            long last = lastTick.get();
+            tick = now > last ? now : last + 1;
+            if (lastTick.compareAndSet(last, tick)) break;
+        }
+        long millis = tick >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (tick & SEQUENCE_MASK);
+    }
+
+    private static String encode(String prefix, long value) {
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + ENCODED_LENGTH];
+        prefix.getChars(0, prefixLength, chars, 0);
+        for (int i = chars.length - 1; i >= prefixLength; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
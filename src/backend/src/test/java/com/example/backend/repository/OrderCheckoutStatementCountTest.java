@@ -0,0 +1,81 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderDetail;
+import com.example.backend.model.Product;
+import com.example.backend.util.IdGenerator;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lưu 1 đơn checkout: đơn mới phải persist thẳng (không SELECT trước INSERT)
+// và các INSERT order_details đi chung 1 batch.
+class OrderCheckoutStatementCountTest extends StatementCountTestSupport {
+
+	private static final List<String> PRODUCT_IDS = List.of("P1", "P2", "P3", "P4", "P5");
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@BeforeEach
+	void seed() {
+		persistCategory("C1");
+		PRODUCT_IDS.forEach(id -> persistProduct(id, "C1"));
+		startCounting();
+	}
+
+	@Test
+	void newOrderIsInsertedWithoutSelectAndLinesAreBatched() {
+		Order order = checkoutOrder();
+		order.markNew();
+
+		orderRepository.save(order);
+		em.flush();
+
+		Statistics stats = statistics();
+		assertThat(stats.getEntityLoadCount()).as("không nạp đơn / dòng hàng / sản phẩm trước khi INSERT").isZero();
+		assertThat(stats.getEntityInsertCount()).isEqualTo(1 + PRODUCT_IDS.size());
+		// 1 INSERT orders + 1 INSERT order_details dùng chung cho cả batch
+		assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void orderNotMarkedNewIsMergedWithSelects() {
+		// Đối chứng: ID tự gán mà không markNew() thì save() merge, SELECT đơn và từng dòng trước khi INSERT
+		orderRepository.save(checkoutOrder());
+		em.flush();
+
+		assertThat(statistics().getPrepareStatementCount()).isGreaterThan(2);
+	}
+
+	private Order checkoutOrder() {
+		Order order = new Order();
+		order.setOrderId(IdGenerator.nextId("OR"));
+		order.setUserId("U1");
+		order.setShippingAddress("1 Lê Lợi, Quận 1");
+		order.setTotalAmount(new BigDecimal("5000000"));
+		order.setIsOrder(true);
+
+		List<OrderDetail> lines = new ArrayList<>();
+		for (String productId : PRODUCT_IDS) {
+			lines.add(OrderDetail.builder()
+					.orderDetailId(IdGenerator.nextId("OD"))
+					.order(order)
+					// Checkout đã có sản phẩm trong persistence context; ở đây dùng reference để không tính SELECT sản phẩm
+					.product(em.getEntityManager().getReference(Product.class, productId))
+					.quantity(1)
+					.unitPrice(new BigDecimal("1000000"))
+					.originalUnitPrice(new BigDecimal("1000000"))
+					.build());
+		}
+		order.setOrderDetails(lines);
+		return order;
+	}
+}
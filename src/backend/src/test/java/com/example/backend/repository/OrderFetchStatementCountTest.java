@@ -0,0 +1,125 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderDetail;
+import com.example.backend.model.Payment;
+import com.example.backend.model.PaymentStatus;
+import com.example.backend.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mỗi màn hình đọc đơn hàng lấy đủ dòng hàng, sản phẩm, danh mục và thanh toán trong đúng 1 câu query
+// (không N+1 khi serialize).
+class OrderFetchStatementCountTest extends StatementCountTestSupport {
+
+	private static final String USER_ID = "U1";
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	private String paidOrderId;
+
+	@BeforeEach
+	void seed() {
+		persistCategory("C1");
+		persistCategory("C2");
+		Product sofa = persistProduct("P1", "C1");
+		Product table = persistProduct("P2", "C1");
+		Product lamp = persistProduct("P3", "C2");
+
+		paidOrderId = persistOrder("O1", USER_ID, true, true, sofa, table).getOrderId();
+		persistOrder("O2", USER_ID, true, false, table, lamp);
+		persistOrder("O3", "U2", true, false, sofa, lamp);
+		persistOrder("CART1", USER_ID, false, false, lamp);
+		startCounting();
+	}
+
+	@Test
+	void orderHistoryLoadsInOneStatement() {
+		List<Order> orders = orderRepository.findByUserId(USER_ID);
+		readAsDto(orders);
+
+		assertThat(orders).hasSize(3);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void orderDetailLoadsInOneStatement() {
+		Order order = orderRepository.findDetailedByOrderId(paidOrderId).orElseThrow();
+		readAsDto(List.of(order));
+
+		assertThat(order.getPayment()).isNotNull();
+		assertThat(order.getOrderDetails()).hasSize(2);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void adminOrderListLoadsInOneStatement() {
+		List<Order> orders = orderRepository.findByIsOrderTrue();
+		readAsDto(orders);
+
+		assertThat(orders).hasSize(3);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void cartLoadsInOneStatement() {
+		List<Order> carts = orderRepository.findByUserIdAndIsOrderFalse(USER_ID);
+		readAsDto(carts);
+
+		assertThat(carts).hasSize(1);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	// Đọc đúng những gì OrderDTO đưa ra: thanh toán, dòng hàng, sản phẩm và danh mục của sản phẩm
+	private static void readAsDto(List<Order> orders) {
+		for (Order order : orders) {
+			if (order.getPayment() != null) {
+				order.getPayment().getPaymentStatus();
+			}
+			for (OrderDetail line : order.getOrderDetails()) {
+				line.getProduct().getProductName();
+				line.getProduct().getCategory().getCategoryName();
+			}
+		}
+	}
+
+	private Order persistOrder(String orderId, String userId, boolean isOrder, boolean paid, Product... products) {
+		Order order = new Order();
+		order.setOrderId(orderId);
+		order.setUserId(userId);
+		order.setShippingAddress("1 Lê Lợi, Quận 1");
+		order.setTotalAmount(new BigDecimal("1000000").multiply(BigDecimal.valueOf(products.length)));
+		order.setIsOrder(isOrder);
+
+		List<OrderDetail> lines = new ArrayList<>();
+		for (Product product : products) {
+			lines.add(OrderDetail.builder()
+					.order(order)
+					.product(product)
+					.quantity(1)
+					.unitPrice(product.getPrice())
+					.originalUnitPrice(product.getPrice())
+					.build());
+		}
+		order.setOrderDetails(lines);
+
+		if (paid) {
+			order.setPayment(Payment.builder()
+					.paymentId("PAY-" + orderId)
+					.order(order)
+					.paymentMethodId("COD")
+					.amount(order.getTotalAmount())
+					.paymentStatus(PaymentStatus.Completed)
+					.build());
+		}
+		return em.persist(order);
+	}
+}
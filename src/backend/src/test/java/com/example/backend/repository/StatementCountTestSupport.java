@@ -0,0 +1,54 @@
+package com.example.backend.repository;
+
+import com.example.backend.component.ResourceVersionEntityListener;
+import com.example.backend.component.ResourceVersions;
+import com.example.backend.model.Category;
+import com.example.backend.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+// Nền cho các test đếm số câu SQL: Hibernate Statistics trên H2 trong bộ nhớ (MODE=MySQL, xem application-test.properties).
+// Giữ nguyên datasource của profile thay vì để @DataJpaTest thay bằng H2 mặc định.
+// Listener ETag gắn trên Product/Category cần ResourceVersions nên phải import vào slice JPA.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ResourceVersions.class, ResourceVersionEntityListener.class})
+abstract class StatementCountTestSupport {
+
+	@Autowired
+	protected TestEntityManager em;
+
+	protected Statistics statistics() {
+		return em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+	}
+
+	// Ghi dữ liệu mẫu xuống DB, bỏ persistence context và xóa bộ đếm: chỉ đo phần đang test
+	protected void startCounting() {
+		em.flush();
+		em.clear();
+		statistics().clear();
+	}
+
+	protected Category persistCategory(String categoryId) {
+		return em.persist(Category.builder().categoryId(categoryId).categoryName("Danh mục " + categoryId).build());
+	}
+
+	protected Product persistProduct(String productId, String categoryId) {
+		return em.persist(Product.builder()
+				.productId(productId)
+				.productName("Sản phẩm " + productId)
+				.price(new BigDecimal("1000000"))
+				.quantity(100)
+				.categoryId(categoryId)
+				.build());
+	}
+}
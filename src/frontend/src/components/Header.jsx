@@ -25,6 +25,9 @@ export default function Header() {
   const [searchParams] = useSearchParams(); // Hook để lấy param từ URL
   const [keyword, setKeyword] = useState(searchParams.get("search") || ""); // Init state từ URL nếu có
 
+  const [suggestions, setSuggestions] = useState([]);
+  const [showSuggestions, setShowSuggestions] = useState(false);
+
   const menuRef = useRef(null);
   const [messageApi, contextHolder] = message.useMessage();
 
@@ -45,6 +48,45 @@ export default function Header() {
     return () => document.removeEventListener("mousedown", handleClickOutside);
   }, [user]);
 
+  // --- GỢI Ý KHI GÕ (server trả từ trie trong bộ nhớ, không phân biệt dấu) ---
+  useEffect(() => {
+    const prefix = keyword.trim();
+    if (!prefix) {
+      setSuggestions([]);
+      return;
+    }
+
+    const controller = new AbortController();
+    const timer = setTimeout(() => {
+      fetch(
+        `http://localhost:8080/api/products/autocomplete?q=${encodeURIComponent(
+          keyword
+        )}&limit=8`,
+        { signal: controller.signal }
+      )
+        .then((res) => (res.ok ? res.json() : []))
+        .then(setSuggestions)
+        .catch(() => {});
+    }, 120);
+
+    return () => {
+      clearTimeout(timer);
+      controller.abort();
+    };
+  }, [keyword]);
+
+  const handleSelectSuggestion = (item) => {
+    setShowSuggestions(false);
+    if (item.type === "PRODUCT") {
+      navigate(`/product/${item.productId}`);
+    } else if (item.type === "CATEGORY") {
+      navigate(`/products?category=${item.categoryId}`);
+    } else {
+      setKeyword(item.text);
+      navigate(`/products?search=${encodeURIComponent(item.text)}`);
+    }
+  };
+
   const handleLogout = () => {
     logout();
     resetCartCount();
@@ -55,6 +97,7 @@ export default function Header() {
 
   // --- XỬ LÝ TÌM KIẾM ---
   const handleSearch = () => {
+    setShowSuggestions(false);
     if (keyword.trim()) {
       // Chuyển hướng sang trang chứa component Products kèm query param
       // LƯU Ý: Thay '/products' bằng đường dẫn thực tế chứa danh sách sản phẩm của bạn (ví dụ: '/' nếu là trang chủ)
@@ -92,7 +135,12 @@ export default function Header() {
             <input
               type="text"
               value={keyword}
-              onChange={(e) => setKeyword(e.target.value)}
+              onChange={(e) => {
+                setKeyword(e.target.value);
+                setShowSuggestions(true);
+              }}
+              onFocus={() => setShowSuggestions(true)}
+              onBlur={() => setTimeout(() => setShowSuggestions(false), 150)}
               onKeyDown={handleKeyDown}
               placeholder="Tìm kiếm ghế sofa, bàn ăn..."
               className="w-full pl-10 pr-12 py-2.5 bg-gray-50 border border-gray-200 rounded-full focus:outline-none focus:ring-2 focus:ring-blue-100 focus:border-blue-500 transition-all text-sm"
@@ -107,6 +155,22 @@ export default function Header() {
               className="absolute left-3.5 top-1/2 -translate-y-1/2 text-gray-400 pointer-events-none"
               size={18}
             />
+            {showSuggestions && suggestions.length > 0 && (
+              <ul className="absolute top-full left-0 right-0 mt-1 bg-white border border-gray-200 rounded-xl shadow-lg overflow-hidden z-50">
+                {suggestions.map((item) => (
+                  <li
+                    key={`${item.type}-${item.productId || item.categoryId || item.text}`}
+                    onMouseDown={() => handleSelectSuggestion(item)}
+                    className="flex items-center justify-between px-4 py-2 text-sm hover:bg-gray-50 cursor-pointer"
+                  >
+                    <span className="truncate">{item.text}</span>
+                    {item.type === "CATEGORY" && (
+                      <span className="ml-3 text-xs text-blue-600 shrink-0">Danh mục</span>
+                    )}
+                  </li>
+                ))}
+              </ul>
+            )}
           </div>
 
           {/* Actions: Cart & User (GIỮ NGUYÊN) */}
@@ -95,6 +95,7 @@ export default function Products() {
   const [flashSale, setFlashSale] = useState(null);
   const [priceRange, setPriceRange] = useState({ min: null, max: null });
   const [loading, setLoading] = useState(true);
+  const [searchRanks, setSearchRanks] = useState(null);
   const [mobileFilterOpen, setMobileFilterOpen] = useState(false);
 
   const [messageApi, contextHolder] = message.useMessage();
@@ -154,6 +155,64 @@ export default function Products() {
     fetchData();
   }, [categoryId]);
 
+  // --- TÌM KIẾM PHÍA SERVER (không dấu, chịu gõ sai, xếp theo độ liên quan) ---
+  useEffect(() => {
+    if (!searchTerm.trim()) {
+      setSearchRanks(null);
+      return;
+    }
+
+    const controller = new AbortController();
+    fetch(
+      `http://localhost:8080/api/products/search?q=${encodeURIComponent(
+        searchTerm
+      )}&limit=100`,
+      { signal: controller.signal }
+    )
+      .then((res) => (res.ok ? res.json() : []))
+      .then((hits) =>
+        setSearchRanks(new Map(hits.map((hit, index) => [hit.productId, index])))
+      )
+      .catch((e) => {
+        if (e.name !== "AbortError") console.error("Lỗi tìm kiếm:", e);
+      });
+
+    return () => controller.abort();
+  }, [searchTerm]);
+
+  // --- CẬP NHẬT SỐ SUẤT FLASH SALE THEO THỜI GIAN THỰC (SSE) ---
+  const flashSaleId = flashSale?.flashSaleId;
+  useEffect(() => {
+    if (!flashSaleId) return;
+
+    const source = new EventSource(
+      "http://localhost:8080/api/flash-sales/current/stream"
+    );
+    source.addEventListener("stock", (event) => {
+      try {
+        const update = JSON.parse(event.data);
+        if (update.flashSaleId !== flashSaleId) return;
+        const changed = new Map(update.items.map((i) => [i.productId, i]));
+        setFlashSale((prev) =>
+          prev
+            ? {
+                ...prev,
+                items: prev.items.map((item) =>
+                  changed.has(item.productId)
+                    ? { ...item, soldCount: changed.get(item.productId).soldCount }
+                    : item
+                ),
+              }
+            : prev
+        );
+      } catch (e) {
+        console.warn("Lỗi parse dữ liệu Flash Sale:", e);
+      }
+    });
+
+    return () => source.close();
+  }, [flashSaleId]);
+
   // --- HELPER ---
   const getProductPriceInfo = (product) => {
     if (flashSale && flashSale.items) {
@@ -205,17 +264,23 @@ export default function Products() {
       .filter(Boolean) || [];
 
   // --- FILTER ---
-  const filteredProducts = products.filter((p) => {
-    const matchesName = p.productName
-      .toLowerCase()
-      .includes(searchTerm.toLowerCase());
-    const { finalPrice } = getProductPriceInfo(p);
-    const matchesPrice =
-      (!priceRange.min || finalPrice >= priceRange.min) &&
-      (!priceRange.max || finalPrice <= priceRange.max);
-
-    return matchesName && matchesPrice;
-  });
+  const filteredProducts = products
+    .filter((p) => {
+      // Khi đang tìm kiếm, chỉ giữ sản phẩm có trong kết quả server trả về
+      const matchesName =
+        !searchTerm.trim() || (searchRanks?.has(p.productId) ?? false);
+      const { finalPrice } = getProductPriceInfo(p);
+      const matchesPrice =
+        (!priceRange.min || finalPrice >= priceRange.min) &&
+        (!priceRange.max || finalPrice <= priceRange.max);
+
+      return matchesName && matchesPrice;
+    })
+    .sort((a, b) =>
+      searchRanks
+        ? searchRanks.get(a.productId) - searchRanks.get(b.productId)
+        : 0
+    );
 
   const handleCategorySelect = (id) => {
     const newParams = new URLSearchParams(searchParams);
@@ -397,6 +462,16 @@ export default function Products() {
             </div>
           )}
 
+          {prod.ratingCount > 0 && (
+            <div className="flex items-center gap-1 text-xs text-gray-500 mb-1">
+              <span className="text-yellow-500">★</span>
+              <span className="font-medium text-gray-700">
+                {prod.ratingAverage.toFixed(1)}
+              </span>
+              <span>({prod.ratingCount})</span>
+            </div>
+          )}
+
           <div className="mt-auto">
             <div className="flex gap-2 items-baseline flex-wrap">
               <span
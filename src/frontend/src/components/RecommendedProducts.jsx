@@ -0,0 +1,63 @@
+import { useEffect, useState } from "react";
+import { Link } from "react-router-dom";
+import Cookies from "js-cookie";
+
+// "Gợi ý cho bạn": theo lịch sử mua nếu đã đăng nhập, ngược lại là sản phẩm bán chạy
+export default function RecommendedProducts() {
+  const [products, setProducts] = useState([]);
+
+  useEffect(() => {
+    const token = Cookies.get("jwt");
+    fetch("http://localhost:8080/api/products/recommended?limit=8", {
+      headers: token ? { Authorization: `Bearer ${token}` } : {},
+    })
+      .then((res) => (res.ok ? res.json() : []))
+      .then(setProducts)
+      .catch((err) => console.error("Lỗi tải gợi ý:", err));
+  }, []);
+
+  if (products.length === 0) return null;
+
+  return (
+    <div className="max-w-7xl mx-auto px-4">
+      <h2 className="text-2xl font-bold text-gray-900 mb-6 flex items-center gap-3">
+        <span className="w-1.5 h-8 bg-blue-600 rounded-full block"></span>
+        Gợi ý cho bạn
+      </h2>
+      <div className="grid grid-cols-2 md:grid-cols-4 gap-4 md:gap-6">
+        {products.map((prod) => {
+          const final =
+            prod.discount > 0
+              ? prod.price * (1 - prod.discount / 100)
+              : prod.price;
+          return (
+            <Link
+              key={prod.productId}
+              to={`/product/${prod.productId}`}
+              className="group bg-white rounded-xl border border-gray-100 overflow-hidden hover:shadow-xl hover:border-blue-200 transition-all duration-300 flex flex-col"
+            >
+              <div className="relative pt-[100%] bg-gray-100 overflow-hidden">
+                <img
+                  src={
+                    prod.imageUrl ||
+                    "https://via.placeholder.com/400x400?text=No+Image"
+                  }
+                  alt={prod.productName}
+                  className="absolute inset-0 w-full h-full object-cover transition-transform duration-500 group-hover:scale-110"
+                />
+              </div>
+              <div className="p-3 sm:p-4 flex flex-col flex-grow">
+                <h3 className="font-medium text-gray-800 text-sm sm:text-base line-clamp-2 min-h-[40px] leading-snug mb-2 group-hover:text-blue-600">
+                  {prod.productName}
+                </h3>
+                <span className="mt-auto text-red-600 font-bold">
+                  {final?.toLocaleString("vi-VN")}₫
+                </span>
+              </div>
+            </Link>
+          );
+        })}
+      </div>
+    </div>
+  );
+}
@@ -0,0 +1,35 @@
+// Gửi đơn hàng qua cổng Flash Sale.
+// Nếu server trả 429 kèm vé (WAITING) thì chờ đúng ETA rồi gửi lại với vé đó;
+// hết suất (409) hoặc bị giới hạn không kèm vé thì trả lỗi ngay.
+const MAX_ATTEMPTS = 20;
+
+export async function submitOrder(url, payload, token, onWaiting) {
+  let ticket = null;
+
+  for (let attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+    const headers = {
+      "Content-Type": "application/json",
+      Authorization: `Bearer ${token}`,
+    };
+    if (ticket) headers["X-FlashSale-Ticket"] = ticket;
+
+    const res = await fetch(url, {
+      method: "POST",
+      headers,
+      body: JSON.stringify(payload),
+    });
+
+    if (res.status !== 429 && res.status !== 409) return res;
+
+    const admission = await res.json().catch(() => null);
+    if (!admission || admission.status !== "WAITING" || !admission.ticket) {
+      throw new Error(admission?.message || "Flash Sale đang quá tải, vui lòng thử lại!");
+    }
+
+    ticket = admission.ticket;
+    if (onWaiting) onWaiting(admission);
+    await new Promise((resolve) => setTimeout(resolve, admission.etaMs));
+  }
+
+  throw new Error("Flash Sale đang quá tải, vui lòng thử lại!");
+}
@@ -116,6 +116,25 @@ export default function AdminDashboard() {
   const BASE_URL = "http://localhost:8080/api/admin/dashboard";
   const headers = { Authorization: `Bearer ${token}` };
 
+  // Chuẩn hóa dữ liệu trạng thái đơn (dịch tên + gắn màu) cho PieChart
+  const applyOrderStatus = (data) => {
+    if (Array.isArray(data) && data.length > 0) {
+      const formatted = data.map((item) => {
+        const key = item.name ? item.name.toUpperCase() : "";
+        return {
+          ...item,
+          name: STATUS_TRANSLATIONS[key] || item.name,
+          color: STATUS_COLORS[key] || "#d1d5db",
+        };
+      });
+      setOrderStatusData(formatted);
+    } else {
+      setOrderStatusData([
+        { name: "Không có dữ liệu", value: 0, color: "#eee" },
+      ]);
+    }
+  };
+
   // --- 1. API CALL RIÊNG CHO STATUS (Dùng useCallback để tránh re-render) ---
   const fetchOrderStatus = useCallback(
     async (start, end) => {
@@ -125,22 +144,7 @@ export default function AdminDashboard() {
         const res = await fetch(url, { headers });
 
         if (res.ok) {
-          const data = await res.json();
-          if (Array.isArray(data) && data.length > 0) {
-            const formatted = data.map((item) => {
-              const key = item.name ? item.name.toUpperCase() : "";
-              return {
-                ...item,
-                name: STATUS_TRANSLATIONS[key] || item.name,
-                color: STATUS_COLORS[key] || "#d1d5db",
-              };
-            });
-            setOrderStatusData(formatted);
-          } else {
-            setOrderStatusData([
-              { name: "Không có dữ liệu", value: 0, color: "#eee" },
-            ]);
-          }
+          applyOrderStatus(await res.json());
         }
       } catch (error) {
         console.error("Fetch Status Error:", error);
@@ -153,92 +157,83 @@ export default function AdminDashboard() {
   );
 
   // --- 2. API CALL CHUNG (Chạy 1 lần đầu tiên) ---
+  // Backend gom tất cả section vào /bundle và tính song song (1 request thay vì ~9)
   useEffect(() => {
     if (!token) return;
 
     const fetchAllData = async () => {
       setLoading(true);
       try {
-        const headersJson = { ...headers, "Content-Type": "application/json" };
-
-        const [
-          resCat,
-          resProd,
-          resKPI,
-          resComp,
-          resCust,
-          resPeak,
-          resStock,
-          resStagnant,
-        ] = await Promise.all([
-          fetch(`${BASE_URL}/categories/top`, { headers }).catch(() => null),
-          fetch(`${BASE_URL}/products/top`, { headers }).catch(() => null),
-          fetch(`${BASE_URL}/overview`, { headers: headersJson }).catch(
-            () => null
-          ),
-          fetch(`${BASE_URL}/chart/revenue-comparison`, { headers }).catch(
-            () => null
-          ),
-          fetch(`${BASE_URL}/customers/top`, { headers }).catch(() => null),
-          fetch(`${BASE_URL}/orders/peak-hours`, { headers }).catch(() => null),
-          fetch(`${BASE_URL}/products/low-stock`, { headers }).catch(
-            () => null
-          ),
-          fetch(`${BASE_URL}/products/stagnant`, { headers }).catch(() => null),
-        ]);
+        const url = `${BASE_URL}/bundle?startDate=${dateRange[0].toISOString()}&endDate=${dateRange[1].toISOString()}`;
+        const res = await fetch(url, {
+          headers: { ...headers, "Content-Type": "application/json" },
+        });
+        if (!res.ok) return;
+
+        const data = await res.json();
+        if (data.failedSections && data.failedSections.length > 0) {
+          console.warn("Dashboard sections failed:", data.failedSections);
+        }
 
         // Xử lý Top Categories
-        if (resCat && resCat.ok) {
-          const data = await resCat.json();
+        if (data.topCategories) {
           setTopCategories(
-            data.map((item) => ({ name: item.name, sales: item.value }))
+            data.topCategories.map((item) => ({
+              name: item.name,
+              sales: item.value,
+            }))
           );
         }
 
         // Xử lý Hàng ế (Stagnant Products)
-        if (resStagnant && resStagnant.ok) {
-          setStagnantData(await resStagnant.json());
+        if (data.stagnant) {
+          setStagnantData(data.stagnant);
         }
 
         // Xử lý Top Products
-        if (resProd && resProd.ok) {
-          const data = await resProd.json();
-          setTopProducts(data.map((item, idx) => ({ key: idx, ...item })));
+        if (data.topProducts) {
+          setTopProducts(
+            data.topProducts.map((item, idx) => ({ key: idx, ...item }))
+          );
         }
 
         // Xử lý KPI
-        if (resKPI && resKPI.ok) {
-          setKpiData(await resKPI.json());
+        if (data.overview) {
+          setKpiData(data.overview);
         }
 
         // Xử lý Comparison Chart
-        if (resComp && resComp.ok) {
-          const data = await resComp.json();
+        if (data.revenueComparison) {
           setComparisonData(
-            Array.isArray(data) && data.length > 0
-              ? data
+            data.revenueComparison.length > 0
+              ? data.revenueComparison
               : [{ label: "Không có dữ liệu", actual: 0 }]
           );
         }
 
         // Xử lý Top Customers
-        if (resCust && resCust.ok) {
-          const data = await resCust.json();
-          setTopCustomers(data.map((item, idx) => ({ key: idx, ...item })));
+        if (data.topCustomers) {
+          setTopCustomers(
+            data.topCustomers.map((item, idx) => ({ key: idx, ...item }))
+          );
         }
 
         // Xử lý Peak Hours
-        if (resPeak && resPeak.ok) {
-          setPeakHourData(await resPeak.json());
+        if (data.peakHours) {
+          setPeakHourData(data.peakHours);
         }
 
         // Xử lý Low Stock
-        if (resStock && resStock.ok) {
-          setLowStockData(await resStock.json());
+        if (data.lowStock) {
+          setLowStockData(data.lowStock);
         }
 
-        // Gọi Status lần đầu theo dateRange mặc định
-        await fetchOrderStatus(dateRange[0], dateRange[1]);
+        // Trạng thái đơn theo dateRange mặc định
+        if (data.orderStatus) {
+          applyOrderStatus(data.orderStatus);
+        } else {
+          await fetchOrderStatus(dateRange[0], dateRange[1]);
+        }
       } catch (error) {
         console.error("Dashboard Load Error:", error);
       } finally {
@@ -138,6 +138,13 @@ export default function CouponManager() {
         body: JSON.stringify(payload),
       });
 
+      if (response.status === 409) {
+        const body = await response.json();
+        messageApi.warning(body.message);
+        setIsModalOpen(false);
+        fetchCoupons();
+        return;
+      }
       if (!response.ok) throw new Error("Save failed");
 
       messageApi.success(
@@ -403,6 +410,10 @@ export default function CouponManager() {
         centered
       >
         <Form form={form} layout="vertical" className="pt-4">
+          {/* version lúc tải: server từ chối (409) nếu bản ghi đã đổi từ đó */}
+          <Form.Item name="version" hidden>
+            <Input />
+          </Form.Item>
           <Row gutter={16}>
             <Col xs={24} sm={12}>
               <Form.Item
@@ -174,6 +174,13 @@ export default function ProductManager() {
         body: JSON.stringify(payload),
       });
 
+      if (res.status === 409) {
+        const body = await res.json();
+        messageApi.warning(body.message);
+        setIsModalOpen(false);
+        fetchProducts();
+        return;
+      }
       if (!res.ok) throw new Error();
       messageApi.success(
         editingProduct ? "Cập nhật thành công" : "Thêm sản phẩm thành công"
@@ -340,6 +347,10 @@ export default function ProductManager() {
         centered
       >
         <Form form={form} layout="vertical" className="pt-4">
+          {/* version lúc tải: server từ chối (409) nếu bản ghi đã đổi từ đó */}
+          <Form.Item name="version" hidden>
+            <Input />
+          </Form.Item>
           <Row gutter={16}>
             <Col span={24} md={16}>
               <Row gutter={16}>
@@ -19,6 +19,7 @@ import {
 } from "lucide-react";
 import Cookies from "js-cookie";
 import { AuthContext } from "../../context/AuthContext"; // [UPDATE] Import AuthContext
+import { submitOrder } from "../OrderService";
 
 // --- HÀM KIỂM TRA HẠN SỬ DỤNG ---
 const isCouponExpired = (endDate) => {
@@ -282,14 +283,16 @@ export default function Checkout() {
       const apiPath = oldOrderIds?.length
         ? "/api/orders/replace"
         : "/api/orders";
-      const res = await fetch(`http://localhost:8080${apiPath}`, {
-        method: "POST",
-        headers: {
-          "Content-Type": "application/json",
-          Authorization: `Bearer ${token}`,
-        },
-        body: JSON.stringify(orderPayload),
-      });
+      // Có sản phẩm Flash Sale thì có thể phải chờ trong hàng đợi
+      const res = await submitOrder(
+        `http://localhost:8080${apiPath}`,
+        orderPayload,
+        token,
+        (admission) =>
+          messageApi.info(
+            `${admission.message} (khoảng ${Math.ceil(admission.etaMs / 1000)} giây)`
+          )
+      );
 
       if (!res.ok) throw new Error(await res.text());
 
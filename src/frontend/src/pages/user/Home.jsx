@@ -1,5 +1,6 @@
 import Slideshow from "../../components/Slideshow";
 import Products from "../../components/Products";
+import RecommendedProducts from "../../components/RecommendedProducts";
 
 export default function Home() {
   return (
@@ -9,6 +10,11 @@ export default function Home() {
         <Slideshow />
       </section>
 
+      {/* Gợi ý cá nhân */}
+      <section className="mb-8">
+        <RecommendedProducts />
+      </section>
+
       {/* Danh sách sản phẩm */}
       {/* Component Products tự quản lý việc hiển thị sản phẩm, phân trang và bộ lọc riêng của nó */}
       <section>
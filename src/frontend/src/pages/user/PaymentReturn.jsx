@@ -5,6 +5,7 @@ import { CheckCircle, XCircle, Loader2, ShieldCheck } from "lucide-react";
 import Cookies from "js-cookie";
 import { AuthContext } from "../../context/AuthContext";
 import { sendInvoiceEmail } from "../EmailService"; 
+import { submitOrder } from "../OrderService";
 
 const generateTransactionId = () =>
   "TM" + Math.random().toString(36).substring(2, 12).toUpperCase();
@@ -72,14 +73,9 @@ export default function PaymentReturn() {
           ? "http://localhost:8080/api/orders/replace"
           : "http://localhost:8080/api/orders";
 
-        orderRes = await fetch(apiEndpoint, {
-          method: "POST",
-          headers: {
-            "Content-Type": "application/json",
-            Authorization: `Bearer ${token}`,
-          },
-          body: JSON.stringify(orderPayload),
-        });
+        orderRes = await submitOrder(apiEndpoint, orderPayload, token, (admission) =>
+          setLoadingMessage(admission.message)
+        );
 
         if (!orderRes.ok) {
           const errText = await orderRes.text();
@@ -6,7 +6,7 @@ import {
   UserOutlined,
   ThunderboltFilled,
 } from "@ant-design/icons";
-import { message, Button, Spin, Rate, Tabs, Avatar } from "antd";
+import { message, Button, Spin, Rate, Tabs, Avatar, Select } from "antd";
 import { Eye, Clock, Zap } from "lucide-react"; // Thêm icon
 import Cookies from "js-cookie";
 import { CartContext } from "../../context/CartContext";
@@ -70,6 +70,9 @@ export default function ProductDetail() {
 
   // State Reviews
   const [reviews, setReviews] = useState([]);
+  const [reviewSort, setReviewSort] = useState("newest");
+  const [reviewCursor, setReviewCursor] = useState(null);
+  const [loadingMoreReviews, setLoadingMoreReviews] = useState(false);
   const [ratingInput, setRatingInput] = useState(5);
   const [commentInput, setCommentInput] = useState("");
   const [submittingReview, setSubmittingReview] = useState(false);
@@ -142,19 +145,47 @@ export default function ProductDetail() {
       }
     };
     fetchRelated();
+  }, [productId]);
 
-    const fetchReviews = async () => {
-      try {
-        const res = await fetch(
-          `http://localhost:8080/api/reviews/product/${productId}`
-        );
-        if (res.ok) setReviews((await res.json()).reverse());
-      } catch (error) {
-        console.error(error);
-      }
+  // --- REVIEWS: tải theo trang, đổi sắp xếp thì tải lại từ đầu ---
+  const fetchReviewPage = async (cursor) => {
+    const params = new URLSearchParams({ sort: reviewSort, limit: "10" });
+    if (cursor) params.set("cursor", cursor);
+    const res = await fetch(
+      `http://localhost:8080/api/reviews/product/${productId}/page?${params}`
+    );
+    if (!res.ok) throw new Error("Không thể tải đánh giá");
+    return res.json();
+  };
+
+  useEffect(() => {
+    let cancelled = false;
+    fetchReviewPage(null)
+      .then((data) => {
+        if (cancelled) return;
+        setReviews(data.items);
+        setReviewCursor(data.nextCursor);
+      })
+      .catch((error) => console.error(error));
+    return () => {
+      cancelled = true;
     };
-    fetchReviews();
-  }, [productId]);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [productId, reviewSort]);
+
+  const handleLoadMoreReviews = async () => {
+    if (!reviewCursor) return;
+    setLoadingMoreReviews(true);
+    try {
+      const data = await fetchReviewPage(reviewCursor);
+      setReviews((prev) => [...prev, ...data.items]);
+      setReviewCursor(data.nextCursor);
+    } catch (error) {
+      console.error(error);
+    } finally {
+      setLoadingMoreReviews(false);
+    }
+  };
 
   useEffect(() => {
     if (!token || !currentUserId || !productId) return;
@@ -368,6 +399,16 @@ export default function ProductDetail() {
       if (!res.ok) throw new Error("Gửi đánh giá thất bại");
       const newReview = await res.json();
       setReviews([newReview, ...reviews]);
+      // Cập nhật điểm tổng hợp tại chỗ, khỏi tải lại sản phẩm
+      setProduct((prev) => {
+        const count = (prev.ratingCount || 0) + 1;
+        const sum = (prev.ratingAverage || 0) * (prev.ratingCount || 0);
+        return {
+          ...prev,
+          ratingCount: count,
+          ratingAverage: (sum + newReview.rating) / count,
+        };
+      });
       setCommentInput("");
       setRatingInput(5);
       messageApi.success("Cảm ơn bạn đã đánh giá sản phẩm!");
@@ -378,12 +419,10 @@ export default function ProductDetail() {
     }
   };
 
+  // Điểm và số lượt lấy từ tổng hợp trên sản phẩm (danh sách đánh giá giờ chỉ tải từng trang)
+  const reviewCount = product?.ratingCount || 0;
   const averageRating =
-    reviews.length > 0
-      ? (
-          reviews.reduce((acc, r) => acc + r.rating, 0) / reviews.length
-        ).toFixed(1)
-      : 0;
+    reviewCount > 0 ? (product.ratingAverage || 0).toFixed(1) : 0;
 
   if (loading)
     return (
@@ -455,7 +494,7 @@ export default function ProductDetail() {
     },
     {
       key: "2",
-      label: `Đánh giá khách hàng (${reviews.length})`,
+      label: `Đánh giá khách hàng (${reviewCount})`,
       children: (
         <div className="py-4">
           {/* Giữ nguyên nội dung Tab đánh giá */}
@@ -473,7 +512,7 @@ export default function ProductDetail() {
                   className="text-yellow-400 text-lg"
                 />
                 <div className="text-sm text-gray-400 mt-2">
-                  ({reviews.length} nhận xét)
+                  ({reviewCount} nhận xét)
                 </div>
               </div>
               <div className="bg-white border border-gray-200 p-6 rounded-xl shadow-sm">
@@ -534,9 +573,22 @@ export default function ProductDetail() {
               </div>
             </div>
             <div className="lg:col-span-2">
-              <h4 className="font-bold text-gray-800 mb-4 text-lg">
-                Nhận xét gần đây
-              </h4>
+              <div className="flex justify-between items-center mb-4">
+                <h4 className="font-bold text-gray-800 text-lg">
+                  Nhận xét của khách hàng
+                </h4>
+                <Select
+                  value={reviewSort}
+                  onChange={setReviewSort}
+                  className="w-40"
+                  options={[
+                    { value: "newest", label: "Mới nhất" },
+                    { value: "highest", label: "Sao cao nhất" },
+                    { value: "lowest", label: "Sao thấp nhất" },
+                    { value: "with-comment", label: "Có nội dung" },
+                  ]}
+                />
+              </div>
               {reviews.length === 0 ? (
                 <div className="text-center py-10 border border-dashed border-gray-300 rounded-xl">
                   <p className="text-gray-400">
@@ -581,6 +633,16 @@ export default function ProductDetail() {
                       </div>
                     </div>
                   ))}
+                  {reviewCursor && (
+                    <div className="text-center">
+                      <Button
+                        onClick={handleLoadMoreReviews}
+                        loading={loadingMoreReviews}
+                      >
+                        Xem thêm đánh giá
+                      </Button>
+                    </div>
+                  )}
                 </div>
               )}
             </div>
@@ -678,7 +740,7 @@ export default function ProductDetail() {
                   className="text-yellow-400 text-sm"
                 />
                 <span className="text-sm text-gray-500">
-                  ({reviews.length} đánh giá)
+                  ({reviewCount} đánh giá)
                 </span>
               </div>
 